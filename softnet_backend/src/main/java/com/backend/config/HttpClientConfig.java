@@ -0,0 +1,60 @@
+package com.backend.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${app.anaf.http.connect-timeout-seconds:10}")
+    private long connectTimeoutSeconds;
+
+    @Value("${app.anaf.http.worker-threads:8}")
+    private int workerThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService anafHttpExecutor() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "anaf-http-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Response bodies are read as blocking streams, so parsing runs here rather than on
+     * the client's own executor, which must stay free to deliver the body data.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService anafResponseExecutor() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "anaf-response-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Shared client for all outgoing ANAF traffic, so connections are pooled
+     * across AnafService and BilantService instead of one pool per service.
+     */
+    @Bean
+    public HttpClient anafHttpClient(@Qualifier("anafHttpExecutor") ExecutorService anafHttpExecutor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(anafHttpExecutor)
+                .build();
+    }
+}
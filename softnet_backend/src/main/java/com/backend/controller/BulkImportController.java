@@ -0,0 +1,137 @@
+package com.backend.controller;
+
+import com.backend.model.BulkImportRequest;
+import com.backend.model.entity.ImportJob;
+import com.backend.model.response.ApiResponse;
+import com.backend.model.response.ImportJobProgress;
+import com.backend.model.response.ImportThroughput;
+import com.backend.model.response.OpenDataIngestionStatus;
+import com.backend.service.BulkImportService;
+import com.backend.service.OpenDataIngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS}, allowCredentials = "true")
+@Tag(name = "Bulk Import", description = "Background import of many companies from ANAF")
+public class BulkImportController {
+
+    private final BulkImportService bulkImportService;
+    private final OpenDataIngestionService openDataIngestionService;
+
+    @Operation(
+        summary = "Start a bulk import from a JSON list of CUIs",
+        description = "Creates an import job and processes it in the background using batched, rate-limited ANAF calls. " +
+                     "Progress is saved after every batch, so an interrupted job resumes when the application restarts."
+    )
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<ImportJobProgress>> importFromJson(@RequestBody BulkImportRequest request) {
+        int years = request.getYears() != null ? request.getYears() : 3;
+        log.info("Bulk import requested for {} CUIs with {} years", request.getCuis() == null ? 0 : request.getCuis().size(), years);
+        ImportJob job = bulkImportService.createJob(request.getCuis(), years);
+        return accepted(job);
+    }
+
+    @Operation(
+        summary = "Start a bulk import from a CSV file",
+        description = "Accepts a CSV or plain text file with CUIs separated by commas, semicolons, tabs or new lines. " +
+                     "Header cells and other values that are not CUIs are ignored."
+    )
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ImportJobProgress>> importFromCsv(
+            @Parameter(description = "CSV file with CUIs")
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Number of years of financial data to retrieve (1-5)", example = "3")
+            @RequestParam(defaultValue = "3") Integer years) throws IOException {
+        List<String> cuis;
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            cuis = bulkImportService.parseCuis(reader);
+        }
+        log.info("Bulk import requested from file {} with {} CUIs and {} years", file.getOriginalFilename(), cuis.size(), years);
+        ImportJob job = bulkImportService.createJob(cuis, years);
+        return accepted(job);
+    }
+
+    @Operation(
+        summary = "Load an ANAF open-data balance sheet file",
+        description = "Reads a delimited balance sheet file from the server's open-data directory (app.open-data.directory) " +
+                     "and stores indicators I1, I7, I10, I13, I15, I18 and I20 for every company in it, without calling ANAF. " +
+                     "Companies that are not stored yet are created with only their CUI. Runs in the background; " +
+                     "only one file is loaded at a time."
+    )
+    @PostMapping("/open-data")
+    public ResponseEntity<ApiResponse<OpenDataIngestionStatus>> ingestOpenData(
+            @Parameter(description = "File name inside the open-data directory", example = "web_bl_bs_sl_an2023.txt")
+            @RequestParam String file,
+            @Parameter(description = "Financial year of the file; taken from the file name when omitted", example = "2023")
+            @RequestParam(required = false) Integer year) throws IOException {
+        log.info("Open-data ingestion requested for file {} and year {}", file, year);
+        try {
+            OpenDataIngestionStatus status = openDataIngestionService.start(file, year);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Ingestion started", status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Get open-data ingestion progress", description = "Returns row counts and rows per second for the current or last file.")
+    @GetMapping("/open-data")
+    public ResponseEntity<ApiResponse<OpenDataIngestionStatus>> getOpenDataStatus() {
+        return openDataIngestionService.getStatus()
+                .map(status -> ResponseEntity.ok(ApiResponse.success(status)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "List import jobs", description = "Returns all import jobs, newest first.")
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ImportJobProgress>>> getJobs() {
+        return ResponseEntity.ok(ApiResponse.success(bulkImportService.getJobs()));
+    }
+
+    @Operation(summary = "Get import job progress", description = "Returns item counts and completion percentage for one job.")
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<ImportJobProgress>> getProgress(@PathVariable UUID jobId) {
+        return bulkImportService.getProgress(jobId)
+                .map(progress -> ResponseEntity.ok(ApiResponse.success(progress)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get import job throughput", description = "Returns items per minute and the estimated time left for one job.")
+    @GetMapping("/{jobId}/throughput")
+    public ResponseEntity<ApiResponse<ImportThroughput>> getThroughput(@PathVariable UUID jobId) {
+        return bulkImportService.getThroughput(jobId)
+                .map(throughput -> ResponseEntity.ok(ApiResponse.success(throughput)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Cancel an import job", description = "Stops the job after the batch currently in progress.")
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<Void> cancel(@PathVariable UUID jobId) {
+        return bulkImportService.cancelJob(jobId)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<ApiResponse<ImportJobProgress>> accepted(ImportJob job) {
+        ImportJobProgress progress = bulkImportService.getProgress(job.getGguid()).orElseThrow();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Import job created", progress));
+    }
+}
@@ -5,6 +5,7 @@ import com.backend.model.entity.CompanyData;
 import com.backend.model.response.ApiResponse;
 import com.backend.service.PostmarkEmailService;
 import com.backend.service.PdfGenerationService;
+import com.backend.service.PdfRenderExecutor;
 import com.backend.service.PdfStorageService;
 import com.backend.service.CompanyFinancialService;
 import com.backend.service.PdfUtilService;
@@ -17,6 +18,7 @@ import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -40,6 +42,7 @@ public class EmailController {
     private final PdfStorageService storageService;
     private final PdfUtilService pdfUtilService;
     private final EmailVerificationService verificationService;
+    private final PdfRenderExecutor renderExecutor;
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String googleClientId;
@@ -64,7 +67,7 @@ public class EmailController {
             }
             CompanyData company = companyOpt.get();
 
-            SecurePdfResult pdfResult = pdfGenerationService.generateSecurePdf(company, cui, years);
+            SecurePdfResult pdfResult = renderExecutor.render(() -> pdfGenerationService.generateSecurePdf(company, cui, years));
             log.info("PDF generated successfully with checksum: {} [RequestID: {}]", pdfResult.getChecksum(), requestId);
 
             String calculatedChecksum = pdfUtilService.calculateChecksum(pdfResult.getPdfData());
@@ -91,6 +94,11 @@ public class EmailController {
             log.info("Email sent successfully to {} for CUI {} with verified PDF {} [RequestID: {}]", email, cui, fileName, requestId);
             return ResponseEntity.ok(new ApiResponse<>("Email sent successfully with verified PDF", requestId));
 
+        } catch (PdfRenderExecutor.BusyException e) {
+            log.warn("PDF rendering busy for CUI: {}: {} [RequestID: {}]", cui, e.getMessage(), requestId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new ApiResponse<>(e.getMessage(), requestId));
         } catch (SecurityException e) {
             log.error("SECURITY VIOLATION: {} [RequestID: {}]", e.getMessage(), requestId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -174,7 +182,8 @@ public class EmailController {
             }
             CompanyData company = companyOpt.get();
 
-            SecurePdfResult pdfResult = pdfGenerationService.generateSecurePdf(company, session.getCui(), session.getYears());
+            SecurePdfResult pdfResult = renderExecutor.render(
+                    () -> pdfGenerationService.generateSecurePdf(company, session.getCui(), session.getYears()));
             log.info("PDF generated successfully with checksum: {} [RequestID: {}]", pdfResult.getChecksum(), requestId);
 
             String calculatedChecksum = pdfUtilService.calculateChecksum(pdfResult.getPdfData());
@@ -211,6 +220,14 @@ public class EmailController {
                     session.getVerifiedEmail(), session.getCui(), fileName, requestId);
             return ResponseEntity.ok(response);
 
+        } catch (PdfRenderExecutor.BusyException e) {
+            log.warn("PDF rendering busy: {} [RequestID: {}]", e.getMessage(), requestId);
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            response.put("requestId", requestId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(response);
         } catch (SecurityException e) {
             log.error("SECURITY VIOLATION: {} [RequestID: {}]", e.getMessage(), requestId, e);
             Map<String, String> response = new HashMap<>();
@@ -0,0 +1,64 @@
+package com.backend.controller;
+
+import com.backend.service.FinancialExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS}, allowCredentials = "true")
+@Tag(name = "Export", description = "Bulk exports of stored data for analytics")
+public class ExportController {
+
+    private final FinancialExportService financialExportService;
+
+    @Operation(
+        summary = "Export financial records with company data",
+        description = "Streams every stored financial record joined with its company as CSV or newline-delimited JSON. " +
+                     "Rows are written as they are read from the database, ordered by CUI and year. " +
+                     "Optional filters: year range and CAEN code."
+    )
+    @GetMapping("/financials")
+    public void exportFinancials(
+            @Parameter(description = "csv or ndjson", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "First financial year to include", example = "2020")
+            @RequestParam(required = false) Integer startYear,
+            @Parameter(description = "Last financial year to include", example = "2023")
+            @RequestParam(required = false) Integer endYear,
+            @Parameter(description = "Only companies with this CAEN code", example = "6201")
+            @RequestParam(required = false) Integer caenCode,
+            HttpServletResponse response) throws IOException {
+
+        FinancialExportService.Format exportFormat = parseFormat(format);
+        if (startYear != null && endYear != null && startYear > endYear) {
+            throw new IllegalArgumentException("startYear must not be after endYear");
+        }
+        log.info("Financial export requested as {} (years {}-{}, CAEN {})", exportFormat, startYear, endYear, caenCode);
+
+        boolean csv = exportFormat == FinancialExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"financial-records." + (csv ? "csv" : "ndjson") + "\"");
+        financialExportService.export(exportFormat, startYear, endYear, caenCode, response.getOutputStream());
+    }
+
+    private static FinancialExportService.Format parseFormat(String format) {
+        try {
+            return FinancialExportService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (use csv or ndjson)");
+        }
+    }
+}
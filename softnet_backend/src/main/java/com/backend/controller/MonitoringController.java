@@ -0,0 +1,75 @@
+package com.backend.controller;
+
+import com.backend.model.response.ApiResponse;
+import com.backend.service.AnafResilience;
+import com.backend.service.BoundedTtlCache;
+import com.backend.service.CompanyFinancialService;
+import com.backend.service.CompanyRefreshService;
+import com.backend.service.DatabaseService;
+import com.backend.service.NegativeResultCache;
+import com.backend.service.OutboundRateLimiter;
+import com.backend.service.PdfRenderCache;
+import com.backend.service.PdfRenderExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/monitoring")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS}, allowCredentials = "true")
+public class MonitoringController {
+
+    private final OutboundRateLimiter rateLimiter;
+    private final AnafResilience resilience;
+    private final CompanyFinancialService companyFinancialService;
+    private final NegativeResultCache negativeResultCache;
+    private final CompanyRefreshService companyRefreshService;
+    private final DatabaseService databaseService;
+    private final PdfRenderCache pdfRenderCache;
+    private final PdfRenderExecutor pdfRenderExecutor;
+
+    @GetMapping("/rate-limits")
+    public ResponseEntity<ApiResponse<Map<String, OutboundRateLimiter.BucketStats>>> getRateLimits() {
+        return ResponseEntity.ok(ApiResponse.success(rateLimiter.getStats()));
+    }
+
+    @GetMapping("/resilience")
+    public ResponseEntity<ApiResponse<Map<String, AnafResilience.EndpointStats>>> getResilience() {
+        return ResponseEntity.ok(ApiResponse.success(resilience.getStats()));
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getSingleFlightStats() {
+        return ResponseEntity.ok(ApiResponse.success(companyFinancialService.getSingleFlightStats()));
+    }
+
+    @GetMapping("/negative-cache")
+    public ResponseEntity<ApiResponse<Map<String, BoundedTtlCache.CacheStats>>> getNegativeCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(negativeResultCache.getStats()));
+    }
+
+    @GetMapping("/entity-cache")
+    public ResponseEntity<ApiResponse<Map<String, BoundedTtlCache.CacheStats>>> getEntityCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(databaseService.getCacheStats()));
+    }
+
+    @GetMapping("/refresh")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRefreshStats() {
+        return ResponseEntity.ok(ApiResponse.success(companyRefreshService.getStats()));
+    }
+
+    @GetMapping("/pdf-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPdfCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(pdfRenderCache.getStats()));
+    }
+
+    @GetMapping("/pdf-render")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPdfRenderStats() {
+        return ResponseEntity.ok(ApiResponse.success(pdfRenderExecutor.getStats()));
+    }
+}
@@ -5,6 +5,7 @@ import com.backend.model.entity.CompanyData;
 import com.backend.model.response.ApiResponse;
 import com.backend.service.CompanyFinancialService;
 import com.backend.service.PdfGenerationService;
+import com.backend.service.PdfRenderExecutor;
 import com.backend.service.PdfStorageService;
 import com.backend.service.PdfUtilService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,10 +18,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 @RestController
 @RequestMapping("/api/pdf")
@@ -34,13 +37,16 @@ public class PdfController {
     private final PdfGenerationService pdfService;
     private final PdfStorageService storageService;
     private final PdfUtilService pdfUtilService;
+    private final PdfRenderExecutor renderExecutor;
 
     @GetMapping("/company/{cui}")
     public ResponseEntity<?> generatePdfReport(
             @PathVariable @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits") String cui,
             @RequestParam(defaultValue = "3") int years,
+            @RequestParam(required = false) String engine,
             HttpServletRequest request) {
 
+        PdfGenerationService.ReportEngine reportEngine = engine != null ? PdfGenerationService.ReportEngine.parse(engine) : null;
         try {
             log.info("PDF generation requested for CUI: {} with {} years", cui, years);
 
@@ -51,7 +57,7 @@ public class PdfController {
             }
 
             CompanyData company = companyOpt.get();
-            SecurePdfResult result = pdfService.generateSecurePdf(company, cui, years);
+            SecurePdfResult result = renderExecutor.render(() -> pdfService.generateSecurePdf(company, cui, years, reportEngine));
             
             String verificationChecksum = pdfUtilService.calculateChecksum(result.getPdfData());
             if (!verificationChecksum.equals(result.getChecksum())) {
@@ -73,6 +79,10 @@ public class PdfController {
                     .headers(headers)
                     .body(result.getPdfData());
 
+        } catch (PdfRenderExecutor.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error generating PDF for CUI: {}", cui, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -83,11 +93,18 @@ public class PdfController {
     @GetMapping("/company/{cui}/data")
     public ResponseEntity<ApiResponse<CompanyData>> getCompanyData(
             @PathVariable @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits") String cui,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            WebRequest webRequest) {
 
         try {
             log.info("Company data requested for CUI: {}", cui);
 
+            var version = companyService.getCompanyVersion(cui);
+            if (version.isPresent()
+                    && webRequest.checkNotModified(version.get().getEtag(), version.get().getLastModifiedMillis())) {
+                return null;
+            }
+
             var companyOpt = companyService.getCompanyFromDatabase(cui);
             if (companyOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
@@ -177,18 +194,29 @@ public class PdfController {
             com.itextpdf.kernel.pdf.PdfDocument pdfDoc = new com.itextpdf.kernel.pdf.PdfDocument(
                     new com.itextpdf.kernel.pdf.PdfReader(new ByteArrayInputStream(pdfBytes))
             );
-            StringBuilder textBuilder = new StringBuilder();
-            int pages = pdfDoc.getNumberOfPages();
-            for (int i = 1; i <= pages; i++) {
-                String pageText = com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor.getTextFromPage(pdfDoc.getPage(i));
-                if (pageText != null) {
-                    textBuilder.append(pageText).append('\n');
+            com.itextpdf.kernel.pdf.PdfDocumentInfo info = pdfDoc.getDocumentInfo();
+            String embeddedSignature = info.getMoreInfo(PdfGenerationService.SIGNATURE_KEY);
+            String embeddedAlg = info.getMoreInfo(PdfGenerationService.SIGNATURE_ALG_KEY);
+            String embeddedTextHash = info.getMoreInfo(PdfGenerationService.CONTENT_HASH_KEY);
+            String embeddedScheme = info.getMoreInfo(PdfGenerationService.SIGNATURE_SCHEME_KEY);
+            String embeddedCanonical = info.getMoreInfo(PdfGenerationService.CANONICAL_CONTENT_KEY);
+            // canonical-v1 reports sign the embedded canonical content, and their page text must be
+            // exactly what that content renders to; older reports signed the location-ordered text
+            boolean canonical = PdfGenerationService.CANONICAL_SCHEME.equals(embeddedScheme);
+            String pageText;
+            if (canonical) {
+                pageText = PdfGenerationService.extractDrawnText(pdfDoc);
+            } else {
+                StringBuilder textBuilder = new StringBuilder();
+                int pages = pdfDoc.getNumberOfPages();
+                for (int i = 1; i <= pages; i++) {
+                    String text = com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor.getTextFromPage(pdfDoc.getPage(i));
+                    if (text != null) {
+                        textBuilder.append(text).append('\n');
+                    }
                 }
+                pageText = textBuilder.toString();
             }
-            com.itextpdf.kernel.pdf.PdfDocumentInfo info = pdfDoc.getDocumentInfo();
-            String embeddedSignature = info.getMoreInfo("report_Signature");
-            String embeddedAlg = info.getMoreInfo("Report-Signature-Alg");
-            String embeddedTextHash = info.getMoreInfo("Report-Content-Text-Hash");
             pdfDoc.close();
 
             if (embeddedSignature == null || embeddedTextHash == null) {
@@ -200,7 +228,20 @@ public class PdfController {
                         .body(ApiResponse.error("Unsupported signature algorithm"));
             }
 
-            byte[] textBytes = textBuilder.toString().getBytes(StandardCharsets.UTF_8);
+            byte[] textBytes;
+            if (canonical) {
+                try {
+                    textBytes = Base64.getDecoder().decode(embeddedCanonical == null ? "" : embeddedCanonical);
+                } catch (IllegalArgumentException e) {
+                    textBytes = new byte[0];
+                }
+                if (textBytes.length == 0) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(ApiResponse.error("PDF not recognized. Missing verification metadata."));
+                }
+            } else {
+                textBytes = pageText.getBytes(StandardCharsets.UTF_8);
+            }
             String recomputedTextHash = pdfUtilService.calculateChecksum(textBytes);
             String recomputedSignature;
             try {
@@ -213,6 +254,11 @@ public class PdfController {
 
             boolean hashMatches = recomputedTextHash.equalsIgnoreCase(embeddedTextHash);
             boolean signatureMatches = recomputedSignature.equals(embeddedSignature);
+            if (canonical && hashMatches && signatureMatches
+                    && !pdfService.matchesCanonicalContent(new String(textBytes, StandardCharsets.UTF_8), pageText)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(ApiResponse.error("PDF integrity check failed: page content does not match the signed content"));
+            }
 
             if (hashMatches && signatureMatches) {
                 return ResponseEntity.ok(ApiResponse.success("PDF is valid (embedded signature verified)", recomputedTextHash));
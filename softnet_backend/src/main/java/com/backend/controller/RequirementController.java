@@ -1,8 +1,14 @@
 package com.backend.controller;
 
+import com.backend.model.CompanyBatchRequest;
 import com.backend.model.entity.CompanyData;
 import com.backend.model.entity.FinancialRecord;
+import com.backend.model.response.CompanyFullView;
+import com.backend.model.response.CompanyLookupResult;
+import com.backend.service.AsyncResults;
+import com.backend.service.CompanyBatchReadService;
 import com.backend.service.CompanyFinancialService;
+import com.backend.service.ContentVersion;
 import com.backend.service.PdfGenerationService;
 import com.backend.service.EmailService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,14 +21,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -35,12 +46,14 @@ public class RequirementController {
     private final CompanyFinancialService companyFinancialService;
     private final PdfGenerationService pdfGenerationService;
     private final EmailService emailService;
+    private final CompanyBatchReadService companyBatchReadService;
 
 
     @Operation(
         summary = "Get company data by CUI",
         description = "Retrieves company information from the database using the Romanian CUI. " +
-                     "This endpoint only returns data from the local database and does not make requests to ANAF."
+                     "This endpoint only returns data from the local database and does not make requests to ANAF. " +
+                     "Responses carry an ETag and Last-Modified; conditional requests that still match get 304."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -48,6 +61,11 @@ public class RequirementController {
             description = "Company data retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = CompanyData.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Company data unchanged since the given ETag / date",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "404", 
             description = "Company not found in database",
@@ -59,8 +77,12 @@ public class RequirementController {
             @Parameter(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
             @PathVariable
             @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
-            String cui) {
+            String cui,
+            WebRequest webRequest) {
         log.info("Getting company data for CUI: {}", cui);
+        if (notModified(companyFinancialService.getCompanyVersion(cui), webRequest)) {
+            return null;
+        }
         Optional<CompanyData> companyData = companyFinancialService.getCompanyFromDatabase(cui);
         return companyData.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -83,8 +105,12 @@ public class RequirementController {
             @Parameter(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
             @PathVariable
             @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
-            String cui) {
+            String cui,
+            WebRequest webRequest) {
         log.info("Getting financial records for CUI: {}", cui);
+        if (notModified(companyFinancialService.getFinancialRecordsVersion(cui), webRequest)) {
+            return null;
+        }
         List<FinancialRecord> records = companyFinancialService.getFinancialRecordsFromDatabase(cui);
         return ResponseEntity.ok(records);
     }
@@ -115,7 +141,8 @@ public class RequirementController {
             @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
             String cui,
             @Parameter(description = "Number of years to retrieve (1-5)", example = "3")
-            @RequestParam(defaultValue = "3") Integer years) {
+            @RequestParam(defaultValue = "3") Integer years,
+            WebRequest webRequest) {
         
         log.info("Getting financial records for CUI: {} for last {} years", cui, years);
         
@@ -142,11 +169,119 @@ public class RequirementController {
         
         log.info("Calculated period: {} to {} (current date: {}-{}, latest available: {})", 
                 startYear, endYear, currentYear, currentMonth, latestAvailableYear);
+
+        if (notModified(companyFinancialService.getFinancialRecordsVersionForPeriod(cui, startYear, endYear), webRequest)) {
+            return null;
+        }
         
         List<FinancialRecord> records = companyFinancialService.getFinancialRecordsForPeriod(cui, startYear, endYear);
         return ResponseEntity.ok(records);
     }
 
+    @Operation(
+        summary = "Get many companies with their financial records",
+        description = "Reads up to app.batch-read.max-cuis companies and their stored financial records for a year " +
+                     "range from the local database, using two set-based queries. The JSON response is streamed: " +
+                     "companies are written in CUI order as they are read, followed by the requested CUIs that are " +
+                     "not stored (notFound)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Companies streamed successfully",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No CUIs, an invalid CUI, too many CUIs or an invalid year range",
+            content = @Content
+        )
+    })
+    @PostMapping(value = "/firma/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getFirmaBatch(@RequestBody CompanyBatchRequest request) {
+        CompanyBatchReadService.BatchQuery query = companyBatchReadService.prepare(request);
+        log.info("Batch read requested for {} CUIs, years {} to {}", query.getCuis().size(), query.getStartYear(), query.getEndYear());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> companyBatchReadService.write(query, out));
+    }
+
+    @Operation(
+        summary = "Get company data with its financial records for a period",
+        description = "Returns the company and its stored financial records for the last N available years in one " +
+                     "response, read with a single query from the local database. The period is calculated the same " +
+                     "way as for /bilant/{cui}/period. Years without a stored record are omitted."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Company and financial records retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CompanyFullView.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid years parameter (must be between 1 and 5)",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Company not found in database",
+            content = @Content
+        )
+    })
+    @GetMapping("/company/{cui}/full")
+    public ResponseEntity<CompanyFullView> getCompanyFull(
+            @Parameter(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
+            @PathVariable
+            @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
+            String cui,
+            @Parameter(description = "Number of years to retrieve (1-5)", example = "3")
+            @RequestParam(defaultValue = "3") Integer years) {
+
+        log.info("Getting full company data for CUI: {} for last {} years", cui, years);
+
+        if (years < 1 || years > 5) {
+            log.warn("Invalid years parameter: {}. Must be between 1 and 5", years);
+            return ResponseEntity.badRequest().build();
+        }
+
+        int endYear = companyFinancialService.getCurrentFinancialYear();
+        int startYear = endYear - years + 1;
+        return companyFinancialService.getCompanyFull(cui, startYear, endYear)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+        summary = "Mark a financial record as stale",
+        description = "Flags a stored balance sheet so the next processing call downloads it again from ANAF. " +
+                     "Closed financial years are otherwise served from the local database."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "204", 
+            description = "Financial record marked as stale",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404", 
+            description = "No financial record stored for this CUI and year",
+            content = @Content
+        )
+    })
+    @PostMapping("/bilant/{cui}/{year}/stale")
+    public ResponseEntity<Void> markBilantStale(
+            @Parameter(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
+            @PathVariable
+            @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
+            String cui,
+            @Parameter(description = "Financial year", example = "2023")
+            @PathVariable Integer year) {
+        log.info("Marking financial record as stale for CUI: {} and year: {}", cui, year);
+        boolean marked = companyFinancialService.markFinancialRecordStale(cui, year);
+        return marked ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
     @Operation(
         summary = "Process and store complete company data",
         description = "Fetches company information and financial records from ANAF and stores them in the database. " +
@@ -176,7 +311,7 @@ public class RequirementController {
         )
     })
     @PostMapping("/firma/{cui}/process")
-    public ResponseEntity<CompanyData> processFirma(
+    public CompletableFuture<ResponseEntity<CompanyData>> processFirma(
             @Parameter(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
             @PathVariable
             @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
@@ -186,22 +321,72 @@ public class RequirementController {
         
         log.info("Processing company for CUI: {} with {} years", cui, years);
         
-        try {
-            if (years < 1 || years > 5) {
-                log.warn("Invalid years parameter: {}. Must be between 1 and 5", years);
-                return ResponseEntity.badRequest().build();
-            }
-            
-            CompanyData companyData = companyFinancialService.processCompanyCompletely(cui, years);
-            if (companyData == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            return ResponseEntity.ok(companyData);
-        } catch (IOException | InterruptedException e) {
-            log.error("Error processing company with CUI: {}", cui, e);
-            return ResponseEntity.internalServerError().build();
+        if (years < 1 || years > 5) {
+            log.warn("Invalid years parameter: {}. Must be between 1 and 5", years);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+
+        return companyFinancialService.processCompanyCompletelyAsync(cui, years)
+                .thenApply(companyData -> companyData == null
+                        ? ResponseEntity.notFound().<CompanyData>build()
+                        : ResponseEntity.ok(companyData))
+                .exceptionally(error -> {
+                    log.error("Error processing company with CUI: {}", cui, AsyncResults.unwrap(error));
+                    return ResponseEntity.internalServerError().build();
+                });
+    }
+
+    @Operation(
+        summary = "Get current company data, served from the database when possible",
+        description = "Returns stored company and financial data immediately while it is within the soft TTL. " +
+                     "Older data is returned at once and refreshed from ANAF in the background. Past the hard TTL, " +
+                     "or while ANAF is unavailable, stored data is still returned and flagged as stale " +
+                     "(freshness field and X-Data-Freshness header). Unknown companies are fetched from ANAF."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Company data returned",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CompanyLookupResult.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Company not found in ANAF database",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Company not stored yet and ANAF could not be reached",
+            content = @Content
+        )
+    })
+    @GetMapping("/firma/{cui}/current")
+    public CompletableFuture<ResponseEntity<CompanyLookupResult>> getCurrentFirma(
+            @Parameter(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
+            @PathVariable
+            @Pattern(regexp = "^[0-9]{2,10}$", message = "CUI must be 2-10 digits")
+            String cui,
+            @Parameter(description = "Number of years of financial data to return (1-5)", example = "3")
+            @RequestParam(defaultValue = "3") Integer years) {
+
+        log.info("Getting current company data for CUI: {} with {} years", cui, years);
+
+        if (years < 1 || years > 5) {
+            log.warn("Invalid years parameter: {}. Must be between 1 and 5", years);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return companyFinancialService.lookupCompanyAsync(cui, years)
+                .thenApply(result -> result == null
+                        ? ResponseEntity.notFound().<CompanyLookupResult>build()
+                        : ResponseEntity.ok()
+                                .header("X-Data-Freshness", result.getFreshness().name())
+                                .header(HttpHeaders.AGE, String.valueOf(result.getAgeSeconds()))
+                                .body(result))
+                .exceptionally(error -> {
+                    log.error("Error looking up company with CUI: {}", cui, AsyncResults.unwrap(error));
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                });
     }
 
     @PostMapping("/send-company-pdf")
@@ -250,4 +435,14 @@ public class RequirementController {
             ));
         }
     }
+
+    /**
+     * Checks If-None-Match / If-Modified-Since against the stored version and sets ETag and
+     * Last-Modified on the response. True means a 304 has been prepared and nothing else
+     * should be written.
+     */
+    private static boolean notModified(Optional<ContentVersion> version, WebRequest webRequest) {
+        return version.isPresent()
+                && webRequest.checkNotModified(version.get().getEtag(), version.get().getLastModifiedMillis());
+    }
 }
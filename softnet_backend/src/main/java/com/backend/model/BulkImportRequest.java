@@ -0,0 +1,17 @@
+package com.backend.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "List of CUIs to import from ANAF")
+public class BulkImportRequest {
+
+    @Schema(description = "Romanian CUIs, with or without the RO prefix", example = "[\"12345678\", \"RO87654321\"]")
+    private List<String> cuis;
+
+    @Schema(description = "Number of years of financial data to retrieve (1-5)", example = "3")
+    private Integer years;
+}
@@ -0,0 +1,20 @@
+package com.backend.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "CUIs to read from the local database in one request")
+public class CompanyBatchRequest {
+
+    @Schema(description = "Romanian CUIs, with or without the RO prefix", example = "[\"12345678\", \"RO87654321\"]")
+    private List<String> cuis;
+
+    @Schema(description = "First financial year to include (defaults to two years before endYear)", example = "2021")
+    private Integer startYear;
+
+    @Schema(description = "Last financial year to include (defaults to the latest available year)", example = "2023")
+    private Integer endYear;
+}
@@ -1,5 +1,6 @@
 package com.backend.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
@@ -16,7 +17,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "Romanian company data retrieved from ANAF")
 public class CompanyData {
 
@@ -75,6 +76,22 @@ public class CompanyData {
     @Schema(description = "Whether the company is inactive", example = "false")
     private Boolean isInactive;
 
+    // bookkeeping columns are kept out of the JSON so the representation only changes with the data
+    @JsonIgnore
+    @Column(name = "last_verified_at", columnDefinition = "TIMESTAMP")
+    @Schema(description = "When the company data was last confirmed against ANAF")
+    private LocalDateTime lastVerifiedAt;
+
+    @JsonIgnore
+    @Column(name = "content_hash", columnDefinition = "VARCHAR(64)")
+    @Schema(description = "SHA-256 of the company fields, used as the entity tag")
+    private String contentHash;
+
+    @JsonIgnore
+    @Column(name = "last_modified", columnDefinition = "TIMESTAMP")
+    @Schema(description = "When the company fields last changed")
+    private LocalDateTime lastModified;
+
     @OneToMany(mappedBy = "companyData", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
     @Schema(description = "List of financial records for this company")
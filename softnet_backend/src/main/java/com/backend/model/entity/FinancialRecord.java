@@ -1,6 +1,7 @@
 package com.backend.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
@@ -65,6 +66,21 @@ public class FinancialRecord {
     @Schema(description = "Average number of employees (ANAF indicator I20)", example = "10")
     private Integer averageEmployees; // I20
 
+    @JsonIgnore
+    @Column(name = "is_stale", columnDefinition = "BOOLEAN")
+    @Schema(description = "Whether the record was marked for re-download from ANAF", example = "false")
+    private Boolean isStale;
+
+    @JsonIgnore
+    @Column(name = "content_hash", columnDefinition = "VARCHAR(64)")
+    @Schema(description = "SHA-256 of the indicator values, used as the entity tag")
+    private String contentHash;
+
+    @JsonIgnore
+    @Column(name = "last_modified", columnDefinition = "TIMESTAMP")
+    @Schema(description = "When the indicator values last changed")
+    private LocalDateTime lastModified;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cui", referencedColumnName = "cui", insertable = false, updatable = false)
     @JsonBackReference
@@ -0,0 +1,71 @@
+package com.backend.model.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "IMPORT_JOB")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Bulk import of many CUIs from ANAF, processed in the background")
+public class ImportJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, CANCELLED }
+
+    @Id
+    @Column(name = "GGUID", nullable = false, updatable = false, columnDefinition = "UUID")
+    private UUID gguid;
+
+    @CreationTimestamp
+    @Column(name = "InsertTimestamp", nullable = false, updatable = false, columnDefinition = "TIMESTAMP")
+    private LocalDateTime insertTimestamp;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "VARCHAR(20)")
+    @Schema(description = "Job status", example = "RUNNING")
+    private Status status;
+
+    @Column(name = "years", columnDefinition = "INTEGER")
+    @Schema(description = "Number of financial years fetched per company", example = "3")
+    private Integer years;
+
+    @Column(name = "total_items", columnDefinition = "INTEGER")
+    @Schema(description = "Number of distinct CUIs in the job", example = "25000")
+    private Integer totalItems;
+
+    @Column(name = "processed_items", columnDefinition = "INTEGER")
+    @Schema(description = "CUIs finished so far (imported, not found or failed)", example = "1200")
+    private Integer processedItems;
+
+    @Column(name = "imported_items", columnDefinition = "INTEGER")
+    private Integer importedItems;
+
+    @Column(name = "not_found_items", columnDefinition = "INTEGER")
+    private Integer notFoundItems;
+
+    @Column(name = "failed_items", columnDefinition = "INTEGER")
+    private Integer failedItems;
+
+    @Column(name = "started_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime startedAt;
+
+    @Column(name = "last_checkpoint_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime lastCheckpointAt;
+
+    @Column(name = "finished_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    public void generateGguid() {
+        if (this.gguid == null) {
+            this.gguid = UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.backend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "IMPORT_JOB_ITEM", uniqueConstraints = {
+        @UniqueConstraint(name = "import_job_item_job_cui", columnNames = {"job_gguid", "cui"})
+}, indexes = {
+        @Index(name = "import_job_item_job_status", columnList = "job_gguid, status, position")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobItem {
+
+    public enum Status { PENDING, IMPORTED, NOT_FOUND, FAILED }
+
+    @Id
+    @Column(name = "GGUID", nullable = false, updatable = false, columnDefinition = "UUID")
+    private UUID gguid;
+
+    @Column(name = "job_gguid", nullable = false, updatable = false, columnDefinition = "UUID")
+    private UUID jobId;
+
+    // order of the CUI in the uploaded list, items are processed in this order
+    @Column(name = "position", nullable = false, columnDefinition = "INTEGER")
+    private Integer position;
+
+    @Column(name = "cui", nullable = false, columnDefinition = "VARCHAR(10)")
+    private String cui;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "VARCHAR(20)")
+    private Status status;
+
+    @Column(name = "attempts", columnDefinition = "INTEGER")
+    private Integer attempts;
+
+    // a failed item is not picked up again before this time
+    @Column(name = "next_attempt_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "processed_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    public void generateGguid() {
+        if (this.gguid == null) {
+            this.gguid = UUID.randomUUID();
+        }
+    }
+}
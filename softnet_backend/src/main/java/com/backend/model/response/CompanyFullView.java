@@ -0,0 +1,60 @@
+package com.backend.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Company data together with its financial records for a range of years")
+public class CompanyFullView {
+
+    @Schema(description = "Romanian CUI (Unique Registration Code)", example = "12345678")
+    private String cui;
+
+    @Schema(description = "Official company name", example = "SC EXAMPLE SRL")
+    private String companyName;
+
+    @Schema(description = "Fiscal address of the company", example = "Str. Exemplu Nr. 1, Bucuresti")
+    private String fiscalAddress;
+
+    @Schema(description = "Trade register number", example = "J40/1234/2020")
+    private String tradeRegisterNo;
+
+    private String phone;
+
+    private String fax;
+
+    private String postalCode;
+
+    private LocalDate registrationDate;
+
+    @Schema(description = "CAEN activity code", example = "6201")
+    private Integer caenCode;
+
+    private String caenDescription;
+
+    private Boolean isVatPayer;
+
+    private Boolean isInactive;
+
+    @Schema(description = "When the company data was last confirmed against ANAF")
+    private LocalDateTime lastVerifiedAt;
+
+    @Schema(description = "First year of the requested range", example = "2021")
+    private int startYear;
+
+    @Schema(description = "Last year of the requested range", example = "2023")
+    private int endYear;
+
+    @Schema(description = "Stored financial records in the range, most recent first; missing years are omitted")
+    private List<FinancialYearView> financialRecords;
+}
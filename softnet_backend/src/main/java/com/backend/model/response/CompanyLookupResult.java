@@ -0,0 +1,39 @@
+package com.backend.model.response;
+
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Company data served from the database, refreshed from ANAF when it gets old")
+public class CompanyLookupResult {
+
+    public enum Freshness { FRESH, REVALIDATING, STALE }
+
+    @Schema(description = "FRESH: within the soft TTL or just fetched; REVALIDATING: past the soft TTL, a refresh " +
+            "is running in the background; STALE: past the hard TTL and ANAF could not be reached", example = "FRESH")
+    private Freshness freshness;
+
+    @Schema(description = "Whether the data is older than the soft TTL", example = "false")
+    private boolean stale;
+
+    @Schema(description = "When the company data was last confirmed against ANAF")
+    private LocalDateTime lastVerifiedAt;
+
+    @Schema(description = "Seconds since the data was last confirmed against ANAF", example = "3600")
+    private long ageSeconds;
+
+    private CompanyData company;
+
+    private List<FinancialRecord> financialRecords;
+}
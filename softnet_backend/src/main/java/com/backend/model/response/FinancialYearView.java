@@ -0,0 +1,39 @@
+package com.backend.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Balance sheet indicators of one financial year")
+public class FinancialYearView {
+
+    @Schema(description = "Financial year", example = "2023")
+    private Integer year;
+
+    @Schema(description = "Net turnover (I13) in RON", example = "1000000")
+    private Long netTurnover;
+
+    @Schema(description = "Net profit (I18) in RON", example = "150000")
+    private Long netProfit;
+
+    @Schema(description = "Total expenses (I15) in RON", example = "850000")
+    private Long totalExpenses;
+
+    @Schema(description = "Liabilities (I7) in RON", example = "200000")
+    private Long liabilities;
+
+    @Schema(description = "Total capital (I10) in RON", example = "500000")
+    private Long totalCapital;
+
+    @Schema(description = "Fixed assets (I1) in RON", example = "300000")
+    private Long fixedAssets;
+
+    @Schema(description = "Average number of employees (I20)", example = "10")
+    private Integer averageEmployees;
+}
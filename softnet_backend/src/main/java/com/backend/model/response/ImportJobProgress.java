@@ -0,0 +1,30 @@
+package com.backend.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobProgress {
+    private UUID jobId;
+    private String status;
+    private Integer years;
+    private int totalItems;
+    private int processedItems;
+    private int importedItems;
+    private int notFoundItems;
+    private int failedItems;
+    private int pendingItems;
+    private double percentComplete;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastCheckpointAt;
+    private LocalDateTime finishedAt;
+}
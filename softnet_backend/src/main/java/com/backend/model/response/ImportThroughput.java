@@ -0,0 +1,24 @@
+package com.backend.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportThroughput {
+    private UUID jobId;
+    private boolean running;
+    // average over the whole run (since start or since the last resume)
+    private double itemsPerMinute;
+    // average over the last few minutes of checkpoints
+    private double recentItemsPerMinute;
+    private int lastBatchSize;
+    private long lastBatchMillis;
+    private Long estimatedSecondsRemaining;
+}
@@ -0,0 +1,32 @@
+package com.backend.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenDataIngestionStatus {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private String file;
+    private int year;
+    private State state;
+    private long fileBytes;
+    private long rowsRead;
+    private long rowsStored;
+    // rows without a valid CUI or with too few columns
+    private long rowsSkipped;
+    private long companiesCreated;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private double elapsedSeconds;
+    private double rowsPerSecond;
+    private String error;
+}
@@ -1,10 +1,21 @@
 package com.backend.repository;
 
 import com.backend.model.entity.CompanyData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CompanyDataRepository extends JpaRepository<CompanyData, Long> {
@@ -12,4 +23,50 @@ public interface CompanyDataRepository extends JpaRepository<CompanyData, Long>
     Optional<CompanyData> findByCui(String cui);
     
     boolean existsByCui(String cui);
+
+    /**
+     * The company and its records in [startYear, endYear] in one statement, newest year first.
+     * Produces a single row with null year columns when no record is in range.
+     */
+    @Query("SELECT new com.backend.repository.CompanyFinancialRow(c.cui, c.companyName, c.fiscalAddress, " +
+           "c.tradeRegisterNo, c.phone, c.fax, c.postalCode, c.registrationDate, c.caenCode, c.caenDescription, " +
+           "c.isVatPayer, c.isInactive, c.lastVerifiedAt, fr.year, fr.netTurnover, fr.netProfit, fr.totalExpenses, " +
+           "fr.liabilities, fr.totalCapital, fr.fixedAssets, fr.averageEmployees) " +
+           "FROM CompanyData c LEFT JOIN c.financialRecords fr ON fr.year BETWEEN :startYear AND :endYear " +
+           "WHERE c.cui = :cui ORDER BY fr.year DESC")
+    List<CompanyFinancialRow> findCompanyWithFinancials(@Param("cui") String cui,
+                                                        @Param("startYear") Integer startYear,
+                                                        @Param("endYear") Integer endYear);
+
+    /**
+     * {@link #findCompanyWithFinancials} for many companies, streamed in CUI order so the rows
+     * of one company are adjacent.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT new com.backend.repository.CompanyFinancialRow(c.cui, c.companyName, c.fiscalAddress, " +
+           "c.tradeRegisterNo, c.phone, c.fax, c.postalCode, c.registrationDate, c.caenCode, c.caenDescription, " +
+           "c.isVatPayer, c.isInactive, c.lastVerifiedAt, fr.year, fr.netTurnover, fr.netProfit, fr.totalExpenses, " +
+           "fr.liabilities, fr.totalCapital, fr.fixedAssets, fr.averageEmployees) " +
+           "FROM CompanyData c LEFT JOIN c.financialRecords fr ON fr.year BETWEEN :startYear AND :endYear " +
+           "WHERE c.cui IN :cuis ORDER BY c.cui, fr.year DESC")
+    Stream<CompanyFinancialRow> streamCompaniesWithFinancials(@Param("cuis") Collection<String> cuis,
+                                                              @Param("startYear") Integer startYear,
+                                                              @Param("endYear") Integer endYear);
+
+    @Query("SELECT c.contentHash AS contentHash, c.lastModified AS lastModified FROM CompanyData c WHERE c.cui = :cui")
+    Optional<ContentVersionView> findVersionByCui(@Param("cui") String cui);
+
+    @Query("SELECT c.cui FROM CompanyData c WHERE c.lastVerifiedAt IS NULL OR c.lastVerifiedAt < :before " +
+           "ORDER BY c.lastVerifiedAt ASC NULLS FIRST")
+    List<String> findCuisVerifiedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Query("SELECT c.cui FROM CompanyData c WHERE c.cui IN :cuis AND (c.lastVerifiedAt IS NULL OR c.lastVerifiedAt < :before)")
+    List<String> findCuisVerifiedBefore(@Param("cuis") Collection<String> cuis, @Param("before") LocalDateTime before);
+
+    @Query("SELECT COUNT(c) FROM CompanyData c WHERE c.lastVerifiedAt IS NULL OR c.lastVerifiedAt < :before")
+    long countVerifiedBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("UPDATE CompanyData c SET c.lastVerifiedAt = :verifiedAt WHERE c.cui IN :cuis")
+    int markVerified(@Param("cuis") Collection<String> cuis, @Param("verifiedAt") LocalDateTime verifiedAt);
 }
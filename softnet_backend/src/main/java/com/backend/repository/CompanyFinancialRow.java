@@ -0,0 +1,37 @@
+package com.backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the company / financial record left join: the company columns repeated for every
+ * year in range, or once with null year columns when there are no records.
+ */
+@Getter
+@AllArgsConstructor
+public class CompanyFinancialRow {
+    private final String cui;
+    private final String companyName;
+    private final String fiscalAddress;
+    private final String tradeRegisterNo;
+    private final String phone;
+    private final String fax;
+    private final String postalCode;
+    private final LocalDate registrationDate;
+    private final Integer caenCode;
+    private final String caenDescription;
+    private final Boolean isVatPayer;
+    private final Boolean isInactive;
+    private final LocalDateTime lastVerifiedAt;
+    private final Integer year;
+    private final Long netTurnover;
+    private final Long netProfit;
+    private final Long totalExpenses;
+    private final Long liabilities;
+    private final Long totalCapital;
+    private final Long fixedAssets;
+    private final Integer averageEmployees;
+}
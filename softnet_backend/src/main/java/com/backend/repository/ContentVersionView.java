@@ -0,0 +1,13 @@
+package com.backend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content hash and modification time of a FIRMA or BILANT row, read without loading the entity.
+ */
+public interface ContentVersionView {
+
+    String getContentHash();
+
+    LocalDateTime getLastModified();
+}
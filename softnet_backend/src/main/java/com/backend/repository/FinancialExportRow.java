@@ -0,0 +1,23 @@
+package com.backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One BILANT row joined with the FIRMA columns needed for analytics exports.
+ */
+@Getter
+@AllArgsConstructor
+public class FinancialExportRow {
+    private final String cui;
+    private final String companyName;
+    private final Integer caenCode;
+    private final Integer year;
+    private final Long netTurnover;
+    private final Long netProfit;
+    private final Long totalExpenses;
+    private final Long liabilities;
+    private final Long totalCapital;
+    private final Long fixedAssets;
+    private final Integer averageEmployees;
+}
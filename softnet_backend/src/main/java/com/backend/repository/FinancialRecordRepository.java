@@ -1,13 +1,19 @@
 package com.backend.repository;
 
 import com.backend.model.entity.FinancialRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FinancialRecordRepository extends JpaRepository<FinancialRecord, Long> {
@@ -22,4 +28,37 @@ public interface FinancialRecordRepository extends JpaRepository<FinancialRecord
     List<FinancialRecord> findByCuiAndYearRange(@Param("cui") String cui, 
                                                @Param("startYear") Integer startYear, 
                                                @Param("endYear") Integer endYear);
+
+    @Query("SELECT fr.contentHash AS contentHash, fr.lastModified AS lastModified FROM FinancialRecord fr " +
+           "WHERE fr.cui = :cui ORDER BY fr.year DESC")
+    List<ContentVersionView> findVersionsByCui(@Param("cui") String cui);
+
+    @Query("SELECT fr.contentHash AS contentHash, fr.lastModified AS lastModified FROM FinancialRecord fr " +
+           "WHERE fr.cui = :cui AND fr.year BETWEEN :startYear AND :endYear ORDER BY fr.year DESC")
+    List<ContentVersionView> findVersionsByCuiAndYearRange(@Param("cui") String cui,
+                                                          @Param("startYear") Integer startYear,
+                                                          @Param("endYear") Integer endYear);
+
+    /**
+     * All financial records with their company, optionally filtered. Must be consumed inside a
+     * read-only transaction; rows are fetched from a server-side cursor in chunks.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.backend.repository.FinancialExportRow(fr.cui, c.companyName, c.caenCode, fr.year, " +
+           "fr.netTurnover, fr.netProfit, fr.totalExpenses, fr.liabilities, fr.totalCapital, fr.fixedAssets, " +
+           "fr.averageEmployees) " +
+           "FROM FinancialRecord fr JOIN fr.companyData c " +
+           "WHERE (:startYear IS NULL OR fr.year >= :startYear) AND (:endYear IS NULL OR fr.year <= :endYear) " +
+           "AND (:caenCode IS NULL OR c.caenCode = :caenCode) " +
+           "ORDER BY fr.cui, fr.year")
+    Stream<FinancialExportRow> streamForExport(@Param("startYear") Integer startYear,
+                                               @Param("endYear") Integer endYear,
+                                               @Param("caenCode") Integer caenCode);
+
+    @Modifying
+    @Query("UPDATE FinancialRecord fr SET fr.isStale = true WHERE fr.cui = :cui AND fr.year = :year")
+    int markStale(@Param("cui") String cui, @Param("year") Integer year);
 }
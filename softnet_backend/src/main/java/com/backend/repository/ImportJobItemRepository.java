@@ -0,0 +1,30 @@
+package com.backend.repository;
+
+import com.backend.model.entity.ImportJobItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobItemRepository extends JpaRepository<ImportJobItem, UUID> {
+
+    /**
+     * Items with the given status whose retry backoff has passed, in upload order.
+     */
+    @Query("SELECT i FROM ImportJobItem i WHERE i.jobId = :jobId AND i.status = :status"
+            + " AND (i.nextAttemptAt IS NULL OR i.nextAttemptAt <= :now) ORDER BY i.position")
+    List<ImportJobItem> findDueItems(@Param("jobId") UUID jobId, @Param("status") ImportJobItem.Status status,
+                                     @Param("now") LocalDateTime now, Pageable pageable);
+
+    // null when no item with the given status is waiting for a retry
+    @Query("SELECT MIN(i.nextAttemptAt) FROM ImportJobItem i WHERE i.jobId = :jobId AND i.status = :status")
+    LocalDateTime findNextAttemptAt(@Param("jobId") UUID jobId, @Param("status") ImportJobItem.Status status);
+
+    long countByJobIdAndStatus(UUID jobId, ImportJobItem.Status status);
+}
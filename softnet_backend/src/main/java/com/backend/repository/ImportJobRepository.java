@@ -0,0 +1,17 @@
+package com.backend.repository;
+
+import com.backend.model.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    List<ImportJob> findByStatusInOrderByInsertTimestampAsc(Collection<ImportJob.Status> statuses);
+
+    List<ImportJob> findAllByOrderByInsertTimestampDesc();
+}
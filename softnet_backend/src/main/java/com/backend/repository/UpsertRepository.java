@@ -0,0 +1,290 @@
+package com.backend.repository;
+
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes FIRMA and BILANT rows with {@code INSERT ... ON CONFLICT DO UPDATE}, which both
+ * PostgreSQL and SQLite (3.35+) understand. One statement replaces the SELECT + merge that
+ * {@code save()} needs, and several rows go into one multi-row statement. Existing rows keep
+ * their GGUID and InsertTimestamp; the stored values are returned through RETURNING.
+ * <p>
+ * Every row also gets a SHA-256 of its business fields. last_modified only moves when that
+ * hash changes, so re-verifying unchanged data keeps the entity tag and Last-Modified stable.
+ */
+@Repository
+public class UpsertRepository {
+
+    // keeps a single statement well below the bind parameter limits of both databases
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String[] COMPANY_COLUMNS = {
+            "gguid", "insert_timestamp", "cui", "company_name", "fiscal_address", "trade_register_no", "phone",
+            "fax", "postal_code", "registration_date", "caen_code", "caen_description", "is_vat_payer", "is_inactive",
+            "last_verified_at", "content_hash", "last_modified"
+    };
+
+    private static final String[] FINANCIAL_COLUMNS = {
+            "gguid", "insert_timestamp", "cui", "year", "net_turnover", "net_profit", "total_expenses",
+            "liabilities", "total_capital", "fixed_assets", "average_employees", "is_stale", "content_hash", "last_modified"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public UpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CompanyData upsertCompany(CompanyData companyData) {
+        return upsertCompanies(List.of(companyData)).get(0);
+    }
+
+    /**
+     * Inserts or updates companies by CUI. If a CUI appears more than once the last entry wins.
+     */
+    public List<CompanyData> upsertCompanies(Collection<CompanyData> companies) {
+        Map<String, CompanyData> byCui = new LinkedHashMap<>();
+        for (CompanyData companyData : companies) {
+            byCui.put(companyData.getCui(), companyData);
+        }
+
+        List<CompanyData> rows = new ArrayList<>(byCui.values());
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<CompanyData> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            String sql = upsertSql("firma", COMPANY_COLUMNS, chunk.size(), "cui") + " RETURNING gguid, insert_timestamp, cui, last_modified";
+
+            List<Object> params = new ArrayList<>(chunk.size() * COMPANY_COLUMNS.length);
+            LocalDateTime now = LocalDateTime.now();
+            for (CompanyData companyData : chunk) {
+                params.add(uuidParam(UUID.randomUUID()));
+                params.add(Timestamp.valueOf(now));
+                params.add(companyData.getCui());
+                params.add(companyData.getCompanyName());
+                params.add(companyData.getFiscalAddress());
+                params.add(companyData.getTradeRegisterNo());
+                params.add(companyData.getPhone());
+                params.add(companyData.getFax());
+                params.add(companyData.getPostalCode());
+                params.add(companyData.getRegistrationDate() != null ? Date.valueOf(companyData.getRegistrationDate()) : null);
+                params.add(companyData.getCaenCode());
+                params.add(companyData.getCaenDescription());
+                params.add(companyData.getIsVatPayer());
+                params.add(companyData.getIsInactive());
+                params.add(Timestamp.valueOf(now));
+                params.add(companyHash(companyData));
+                params.add(Timestamp.valueOf(now));
+            }
+
+            jdbcTemplate.query(sql, rs -> {
+                CompanyData stored = byCui.get(rs.getString("cui"));
+                stored.setGguid(readUuid(rs.getObject("gguid")));
+                stored.setInsertTimestamp(readTimestamp(rs, "insert_timestamp"));
+                stored.setLastVerifiedAt(now);
+                stored.setContentHash(companyHash(stored));
+                stored.setLastModified(readTimestamp(rs, "last_modified"));
+            }, params.toArray());
+        }
+        return rows;
+    }
+
+    public FinancialRecord upsertFinancialRecord(FinancialRecord financialRecord) {
+        return upsertFinancialRecords(List.of(financialRecord)).get(0);
+    }
+
+    /**
+     * Inserts or updates financial records by (cui, year) and clears their stale flag. If a
+     * (cui, year) pair appears more than once the last entry wins.
+     */
+    public List<FinancialRecord> upsertFinancialRecords(Collection<FinancialRecord> financialRecords) {
+        Map<String, FinancialRecord> byKey = new LinkedHashMap<>();
+        for (FinancialRecord financialRecord : financialRecords) {
+            byKey.put(financialKey(financialRecord.getCui(), financialRecord.getYear()), financialRecord);
+        }
+
+        List<FinancialRecord> rows = new ArrayList<>(byKey.values());
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<FinancialRecord> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            String sql = upsertSql("bilant", FINANCIAL_COLUMNS, chunk.size(), "cui", "year")
+                    + " RETURNING gguid, insert_timestamp, cui, year, last_modified";
+
+            List<Object> params = new ArrayList<>(chunk.size() * FINANCIAL_COLUMNS.length);
+            LocalDateTime now = LocalDateTime.now();
+            for (FinancialRecord financialRecord : chunk) {
+                params.add(uuidParam(UUID.randomUUID()));
+                params.add(Timestamp.valueOf(now));
+                params.add(financialRecord.getCui());
+                params.add(financialRecord.getYear());
+                params.add(financialRecord.getNetTurnover());
+                params.add(financialRecord.getNetProfit());
+                params.add(financialRecord.getTotalExpenses());
+                params.add(financialRecord.getLiabilities());
+                params.add(financialRecord.getTotalCapital());
+                params.add(financialRecord.getFixedAssets());
+                params.add(financialRecord.getAverageEmployees());
+                params.add(false);
+                params.add(financialHash(financialRecord));
+                params.add(Timestamp.valueOf(now));
+            }
+
+            jdbcTemplate.query(sql, rs -> {
+                FinancialRecord stored = byKey.get(financialKey(rs.getString("cui"), rs.getInt("year")));
+                stored.setGguid(readUuid(rs.getObject("gguid")));
+                stored.setInsertTimestamp(readTimestamp(rs, "insert_timestamp"));
+                stored.setIsStale(false);
+                stored.setContentHash(financialHash(stored));
+                stored.setLastModified(readTimestamp(rs, "last_modified"));
+            }, params.toArray());
+        }
+        return rows;
+    }
+
+    /**
+     * Inserts a FIRMA row holding only the CUI for every CUI that is not stored yet, so that
+     * financial records can reference it. Existing companies are left untouched. Returns the
+     * number of rows inserted.
+     */
+    public int insertMissingCompanies(Collection<String> cuis) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(cuis));
+        int inserted = 0;
+        for (int from = 0; from < distinct.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = distinct.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, distinct.size()));
+            String sql = "INSERT INTO firma (gguid, insert_timestamp, cui) VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?)"))
+                    + " ON CONFLICT (cui) DO NOTHING";
+
+            List<Object> params = new ArrayList<>(chunk.size() * 3);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (String cui : chunk) {
+                params.add(uuidParam(UUID.randomUUID()));
+                params.add(now);
+                params.add(cui);
+            }
+            inserted += jdbcTemplate.update(sql, params.toArray());
+        }
+        return inserted;
+    }
+
+    /**
+     * INSERT INTO table (columns) VALUES (?, ...), (?, ...) ON CONFLICT (keys) DO UPDATE SET
+     * every column except the id, the insert timestamp and the key columns. last_modified is
+     * only overwritten when the content hash differs from the stored one.
+     */
+    private static String upsertSql(String table, String[] columns, int rowCount, String... conflictColumns) {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+
+        sql.append(" ON CONFLICT (").append(String.join(", ", conflictColumns)).append(") DO UPDATE SET ");
+        List<String> keys = List.of(conflictColumns);
+        boolean first = true;
+        for (String column : columns) {
+            if (column.equals("gguid") || column.equals("insert_timestamp") || keys.contains(column)) {
+                continue;
+            }
+            if (!first) {
+                sql.append(", ");
+            }
+            if (column.equals("last_modified")) {
+                sql.append("last_modified = CASE WHEN ").append(table).append(".content_hash = excluded.content_hash THEN ")
+                        .append(table).append(".last_modified ELSE excluded.last_modified END");
+            } else {
+                sql.append(column).append(" = excluded.").append(column);
+            }
+            first = false;
+        }
+        return sql.toString();
+    }
+
+    public static String companyHash(CompanyData companyData) {
+        return sha256(companyData.getCui(), companyData.getCompanyName(), companyData.getFiscalAddress(),
+                companyData.getTradeRegisterNo(), companyData.getPhone(), companyData.getFax(), companyData.getPostalCode(),
+                companyData.getRegistrationDate(), companyData.getCaenCode(), companyData.getCaenDescription(),
+                companyData.getIsVatPayer(), companyData.getIsInactive());
+    }
+
+    public static String financialHash(FinancialRecord financialRecord) {
+        return sha256(financialRecord.getCui(), financialRecord.getYear(), financialRecord.getNetTurnover(),
+                financialRecord.getNetProfit(), financialRecord.getTotalExpenses(), financialRecord.getLiabilities(),
+                financialRecord.getTotalCapital(), financialRecord.getFixedAssets(), financialRecord.getAverageEmployees());
+    }
+
+    // fields are length-prefixed so that ("ab", "c") and ("a", "bc") hash differently; null is "-"
+    private static String sha256(Object... fields) {
+        StringBuilder content = new StringBuilder();
+        for (Object field : fields) {
+            if (field == null) {
+                content.append('-');
+            } else {
+                String value = field.toString();
+                content.append(value.length()).append(':').append(value);
+            }
+            content.append('|');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static LocalDateTime readTimestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static String financialKey(String cui, Integer year) {
+        return cui + ":" + year;
+    }
+
+    // PostgreSQL binds a native UUID, SQLite stores the text form
+    private Object uuidParam(UUID uuid) {
+        return isPostgres() ? uuid : uuid.toString();
+    }
+
+    private static UUID readUuid(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+}
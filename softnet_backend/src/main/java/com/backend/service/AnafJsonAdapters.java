@@ -0,0 +1,324 @@
+package com.backend.service;
+
+import com.backend.model.response.AnafResponse;
+import com.backend.model.response.BilantResponse;
+import com.backend.model.response.FiscalAddressData;
+import com.backend.model.response.FoundCompany;
+import com.backend.model.response.GeneralData;
+import com.backend.model.response.InactiveStatusData;
+import com.backend.model.response.Indicator;
+import com.backend.model.response.VatRegistrationData;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming readers for the ANAF payloads. Responses are parsed straight from the HTTP
+ * body stream and every field that the application does not use is skipped with
+ * {@link JsonReader#skipValue()} instead of being materialised.
+ */
+public final class AnafJsonAdapters {
+
+    private AnafJsonAdapters() {
+    }
+
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new Factory())
+                .create();
+    }
+
+    public static JsonReader newReader(InputStream body) {
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        return new JsonReader(reader);
+    }
+
+    private static final class Factory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> rawType = type.getRawType();
+            TypeAdapter<T> writer = gson.getDelegateAdapter(this, type);
+            if (rawType == AnafResponse.class) {
+                return (TypeAdapter<T>) new AnafResponseAdapter(gson, (TypeAdapter<AnafResponse>) writer);
+            }
+            if (rawType == FoundCompany.class) {
+                return (TypeAdapter<T>) new FoundCompanyAdapter(gson, (TypeAdapter<FoundCompany>) writer);
+            }
+            if (rawType == BilantResponse.class) {
+                return (TypeAdapter<T>) new BilantResponseAdapter(gson, (TypeAdapter<BilantResponse>) writer);
+            }
+            if (rawType == Indicator.class) {
+                return (TypeAdapter<T>) new IndicatorAdapter((TypeAdapter<Indicator>) writer);
+            }
+            return null;
+        }
+    }
+
+    private static final class AnafResponseAdapter extends TypeAdapter<AnafResponse> {
+        private final Gson gson;
+        private final TypeAdapter<AnafResponse> writer;
+
+        AnafResponseAdapter(Gson gson, TypeAdapter<AnafResponse> writer) {
+            this.gson = gson;
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(JsonWriter out, AnafResponse value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public AnafResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TypeAdapter<FoundCompany> companyAdapter = gson.getAdapter(FoundCompany.class);
+            AnafResponse response = new AnafResponse();
+            response.setFound(new ArrayList<>());
+            response.setNotFound(new ArrayList<>());
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "cod" -> response.setCod(nextIntOrZero(in));
+                    case "data" -> response.setData(nextStringOrNull(in));
+                    case "found" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                response.getFound().add(companyAdapter.read(in));
+                            }
+                            in.endArray();
+                        }
+                    }
+                    case "notFound" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                response.getNotFound().add(readNotFoundEntry(in));
+                            }
+                            in.endArray();
+                        }
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return response;
+        }
+
+        // same shape the reflective adapter produced for List<Object>: numbers as Double
+        private Object readNotFoundEntry(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NUMBER) {
+                return in.nextDouble();
+            }
+            if (token == JsonToken.STRING) {
+                return in.nextString();
+            }
+            in.skipValue();
+            return null;
+        }
+    }
+
+    /**
+     * Reads only the sections used when storing a company; the RTVAI, split VAT and
+     * registered office address blocks are skipped.
+     */
+    private static final class FoundCompanyAdapter extends TypeAdapter<FoundCompany> {
+        private final Gson gson;
+        private final TypeAdapter<FoundCompany> writer;
+
+        FoundCompanyAdapter(Gson gson, TypeAdapter<FoundCompany> writer) {
+            this.gson = gson;
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(JsonWriter out, FoundCompany value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public FoundCompany read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            FoundCompany company = new FoundCompany();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "date_generale" -> company.setDateGenerale(gson.getAdapter(GeneralData.class).read(in));
+                    case "inregistrare_scop_Tva" -> company.setInregistrareScopTva(readVatRegistration(in));
+                    case "stare_inactiv" -> company.setStareInactiv(gson.getAdapter(InactiveStatusData.class).read(in));
+                    case "adresa_domiciliu_fiscal" -> company.setAdresaDomiciliuFiscal(gson.getAdapter(FiscalAddressData.class).read(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return company;
+        }
+
+        // only the VAT payer flag is used, the period history is skipped
+        private VatRegistrationData readVatRegistration(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            VatRegistrationData registration = new VatRegistrationData();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("scpTVA".equals(in.nextName()) && in.peek() == JsonToken.BOOLEAN) {
+                    registration.setPlatitorTVA(in.nextBoolean());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return registration;
+        }
+    }
+
+    private static final class BilantResponseAdapter extends TypeAdapter<BilantResponse> {
+        private final Gson gson;
+        private final TypeAdapter<BilantResponse> writer;
+
+        BilantResponseAdapter(Gson gson, TypeAdapter<BilantResponse> writer) {
+            this.gson = gson;
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(JsonWriter out, BilantResponse value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public BilantResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TypeAdapter<Indicator> indicatorAdapter = gson.getAdapter(Indicator.class);
+            BilantResponse response = new BilantResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "an" -> response.setAn(nextIntOrZero(in));
+                    case "cui" -> response.setCui(nextIntOrZero(in));
+                    case "deni" -> response.setDeni(nextStringOrNull(in));
+                    case "caen" -> response.setCaen(nextIntOrZero(in));
+                    case "den_caen" -> response.setDenumireCaen(nextStringOrNull(in));
+                    case "i" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            List<Indicator> indicators = new ArrayList<>();
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                indicators.add(indicatorAdapter.read(in));
+                            }
+                            in.endArray();
+                            response.setIndicatori(indicators);
+                        }
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return response;
+        }
+    }
+
+    /**
+     * Keeps the indicator code and value; the long indicator description is skipped.
+     */
+    private static final class IndicatorAdapter extends TypeAdapter<Indicator> {
+        private final TypeAdapter<Indicator> writer;
+
+        IndicatorAdapter(TypeAdapter<Indicator> writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(JsonWriter out, Indicator value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public Indicator read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Indicator indicator = new Indicator();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "indicator" -> indicator.setCodIndicator(nextStringOrNull(in));
+                    case "val_indicator" -> indicator.setValoareIndicator(nextLongOrZero(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return indicator;
+        }
+    }
+
+    private static int nextIntOrZero(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextInt();
+    }
+
+    // amounts are whole lei, but a null or fractional value must not fail the whole statement
+    private static long nextLongOrZero(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        String value = in.nextString().trim();
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return new BigDecimal(value).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new JsonSyntaxException("Invalid indicator value: " + value, e);
+        }
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
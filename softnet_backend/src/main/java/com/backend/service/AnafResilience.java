@@ -0,0 +1,247 @@
+package com.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Failure handling shared by the ANAF clients: a circuit breaker per endpoint, bounded
+ * retries with exponential backoff and full jitter, a deadline per attempt and optional
+ * hedging of slow requests. Only idempotent lookups are passed through here.
+ */
+@Component
+@Slf4j
+public class AnafResilience {
+
+    private final Environment environment;
+    private final OutboundRateLimiter rateLimiter;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long attemptTimeoutMs;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Map<String, EndpointState> endpoints = new ConcurrentHashMap<>();
+
+    public AnafResilience(Environment environment,
+                          OutboundRateLimiter rateLimiter,
+                          @Value("${app.anaf.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${app.anaf.retry.base-delay-ms:250}") long baseDelayMs,
+                          @Value("${app.anaf.retry.max-delay-ms:4000}") long maxDelayMs,
+                          @Value("${app.anaf.retry.attempt-timeout-seconds:45}") long attemptTimeoutSeconds,
+                          @Value("${app.anaf.circuit.failure-threshold:5}") int failureThreshold,
+                          @Value("${app.anaf.circuit.open-seconds:30}") long openSeconds) {
+        this.environment = environment;
+        this.rateLimiter = rateLimiter;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.attemptTimeoutMs = TimeUnit.SECONDS.toMillis(attemptTimeoutSeconds);
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Duration.ofSeconds(openSeconds);
+    }
+
+    /**
+     * Runs {@code attempt} until it succeeds, fails with a non-retryable error or runs out of
+     * attempts. Each attempt must do its own rate limiting, so retries are paced like any
+     * other request.
+     */
+    public <T> CompletableFuture<T> execute(String endpoint, Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        runAttempt(state(endpoint), endpoint, attempt, 1, result);
+        return result;
+    }
+
+    /**
+     * Sends {@code send} and, if it has not answered after the endpoint's hedge delay
+     * (app.anaf.hedge.&lt;endpoint&gt;.delay-ms, 0 disables), sends it once more provided a rate
+     * limit permit is free right now. The first successful response wins; the other is discarded.
+     */
+    public <T> CompletableFuture<T> hedged(String endpoint, Supplier<CompletableFuture<T>> send) {
+        EndpointState state = state(endpoint);
+        CompletableFuture<T> primary = send.get();
+        if (state.hedgeDelayMs <= 0) {
+            return primary;
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        primary.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+
+        CompletableFuture.delayedExecutor(state.hedgeDelayMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone() || primary.isDone()) {
+                return;
+            }
+            if (!rateLimiter.tryAcquire(endpoint)) {
+                state.hedgesSkipped.incrementAndGet();
+                return;
+            }
+            outstanding.incrementAndGet();
+            state.hedgesSent.incrementAndGet();
+            CompletableFuture<T> hedge;
+            try {
+                hedge = send.get();
+            } catch (RuntimeException e) {
+                hedge = CompletableFuture.failedFuture(e);
+            }
+            hedge.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (result.complete(value)) {
+                        state.hedgesWon.incrementAndGet();
+                    }
+                } else if (outstanding.decrementAndGet() == 0) {
+                    result.completeExceptionally(error);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Bounds the network part of an attempt (send, response and body parsing). Applied after
+     * the rate limit and in-flight permits were obtained, so time spent queueing locally never
+     * counts as an upstream timeout.
+     */
+    public <T> CompletableFuture<T> withDeadline(CompletableFuture<T> call) {
+        return call.orTimeout(attemptTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isOpen(String endpoint) {
+        return state(endpoint).breaker.isOpen();
+    }
+
+    public Map<String, EndpointStats> getStats() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        endpoints.forEach((endpoint, state) -> stats.put(endpoint, new EndpointStats(
+                state.breaker.getState().name(),
+                state.breaker.getConsecutiveFailures(),
+                state.breaker.getSuccesses(),
+                state.breaker.getFailures(),
+                state.breaker.getRejected(),
+                state.breaker.getTimesOpened(),
+                state.retries.get(),
+                state.timeouts.get(),
+                state.hedgeDelayMs,
+                state.hedgesSent.get(),
+                state.hedgesWon.get(),
+                state.hedgesSkipped.get())));
+        return stats;
+    }
+
+    private <T> void runAttempt(EndpointState state, String endpoint, Supplier<CompletableFuture<T>> attempt,
+                                int attemptNumber, CompletableFuture<T> result) {
+        if (!state.breaker.tryAcquire()) {
+            result.completeExceptionally(new CircuitOpenException("ANAF endpoint " + endpoint + " is unavailable (circuit open)"));
+            return;
+        }
+
+        CompletableFuture<T> call;
+        try {
+            call = attempt.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                state.breaker.onSuccess();
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = AsyncResults.unwrap(error);
+            boolean retryable;
+            if (cause instanceof ThrottledException) {
+                state.breaker.onIgnored();
+                retryable = true;
+            } else if (cause instanceof IOException || cause instanceof TimeoutException) {
+                if (cause instanceof TimeoutException) {
+                    state.timeouts.incrementAndGet();
+                    cause = new IOException("ANAF endpoint " + endpoint + " did not answer within " + attemptTimeoutMs + " ms", cause);
+                }
+                state.breaker.onFailure();
+                retryable = true;
+            } else {
+                state.breaker.onIgnored();
+                retryable = false;
+            }
+
+            if (!retryable || attemptNumber >= maxAttempts) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            long delayMs = backoffMs(attemptNumber);
+            state.retries.incrementAndGet();
+            log.warn("ANAF {} attempt {} failed ({}), retrying in {} ms", endpoint, attemptNumber, cause.getMessage(), delayMs);
+            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> runAttempt(state, endpoint, attempt, attemptNumber + 1, result));
+        });
+    }
+
+    // full jitter: uniform in [0, min(max, base * 2^(attempt - 1))]
+    private long backoffMs(int attemptNumber) {
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private EndpointState state(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, name -> new EndpointState(
+                new CircuitBreaker(failureThreshold, openDuration),
+                environment.getProperty("app.anaf.hedge." + name + ".delay-ms", Long.class, 0L)));
+    }
+
+    private static final class EndpointState {
+        private final CircuitBreaker breaker;
+        private final long hedgeDelayMs;
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong hedgesSent = new AtomicLong();
+        private final AtomicLong hedgesWon = new AtomicLong();
+        private final AtomicLong hedgesSkipped = new AtomicLong();
+
+        EndpointState(CircuitBreaker breaker, long hedgeDelayMs) {
+            this.breaker = breaker;
+            this.hedgeDelayMs = hedgeDelayMs;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class EndpointStats {
+        private final String circuitState;
+        private final int consecutiveFailures;
+        private final long successes;
+        private final long failures;
+        private final long rejected;
+        private final long timesOpened;
+        private final long retries;
+        private final long timeouts;
+        private final long hedgeDelayMs;
+        private final long hedgesSent;
+        private final long hedgesWon;
+        private final long hedgesSkipped;
+    }
+}
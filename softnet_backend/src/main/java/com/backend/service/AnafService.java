@@ -3,42 +3,293 @@ package com.backend.service;
 import com.backend.model.DataRequest;
 import com.google.gson.Gson;
 import com.backend.model.response.AnafResponse;
+import com.backend.model.response.FoundCompany;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class AnafService {
+    // ANAF v9 accepts at most 100 {cui, data} entries per call
+    public static final int MAX_BATCH_SIZE = 100;
+
     private final String Anaf_Url_Api="https://webservicesp.anaf.ro/api/PlatitorTvaRest/v9/tva";
     private final HttpClient client;
     private final Gson gson;
-    public AnafService(){
-        this.client = HttpClient.newHttpClient();
-        this.gson = new Gson();
+
+    private final long batchWindowMs;
+    private final int batchMaxSize;
+    private final Duration requestTimeout;
+    private final InFlightLimiter inFlightLimiter;
+    private final OutboundRateLimiter rateLimiter;
+    private final AnafResilience resilience;
+    private final NegativeResultCache negativeCache;
+    private final ExecutorService responseExecutor;
+    private final ScheduledExecutorService batchScheduler;
+    private final Object pendingLock = new Object();
+    private Map<Integer, List<CompletableFuture<AnafResponse>>> pendingLookups = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public AnafService(HttpClient anafHttpClient,
+                       OutboundRateLimiter rateLimiter,
+                       AnafResilience resilience,
+                       NegativeResultCache negativeCache,
+                       @Qualifier("anafResponseExecutor") ExecutorService responseExecutor,
+                       @Value("${app.anaf.batch.window-ms:5}") long batchWindowMs,
+                       @Value("${app.anaf.batch.max-size:100}") int batchMaxSize,
+                       @Value("${app.anaf.http.request-timeout-seconds:30}") long requestTimeoutSeconds,
+                       @Value("${app.anaf.http.max-in-flight:4}") int maxInFlight){
+        this.client = anafHttpClient;
+        this.gson = AnafJsonAdapters.createGson();
+        this.batchWindowMs = batchWindowMs;
+        this.batchMaxSize = Math.max(1, Math.min(batchMaxSize, MAX_BATCH_SIZE));
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        this.inFlightLimiter = new InFlightLimiter(maxInFlight);
+        this.rateLimiter = rateLimiter;
+        this.resilience = resilience;
+        this.negativeCache = negativeCache;
+        this.responseExecutor = responseExecutor;
+        this.batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "anaf-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
+    /**
+     * Looks up a single CUI. Lookups arriving within the batch window are coalesced
+     * into one upstream call and the response is split back per caller.
+     */
     public AnafResponse checkAnaf(Integer cui) throws IOException, InterruptedException {
+        return AsyncResults.await(checkAnafAsync(cui));
+    }
+
+    public CompletableFuture<AnafResponse> checkAnafAsync(Integer cui) {
+        if (negativeCache.isCuiNotFound(cui)) {
+            log.info("CUI {} was recently reported as not found by ANAF, skipping lookup", cui);
+            return CompletableFuture.completedFuture(notFoundResponse(List.of(cui)));
+        }
+        CompletableFuture<AnafResponse> future = new CompletableFuture<>();
+        enqueueLookup(cui, future);
+        return future;
+    }
+
+    /**
+     * Looks up many CUIs, sending them in chunks of at most {@link #MAX_BATCH_SIZE}.
+     * The merged response contains all found companies and all not-found CUIs.
+     */
+    public AnafResponse checkAnafBatch(Collection<Integer> cuis) throws IOException, InterruptedException {
+        return AsyncResults.await(checkAnafBatchAsync(cuis));
+    }
+
+    public CompletableFuture<AnafResponse> checkAnafBatchAsync(Collection<Integer> cuis) {
+        List<Integer> distinctCuis = new ArrayList<>();
+        List<Integer> knownNotFound = new ArrayList<>();
+        for (Integer cui : new LinkedHashSet<>(cuis)) {
+            if (negativeCache.isCuiNotFound(cui)) {
+                knownNotFound.add(cui);
+            } else {
+                distinctCuis.add(cui);
+            }
+        }
+
+        List<CompletableFuture<AnafResponse>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctCuis.size(); from += MAX_BATCH_SIZE) {
+            List<Integer> chunk = distinctCuis.subList(from, Math.min(from + MAX_BATCH_SIZE, distinctCuis.size()));
+            chunks.add(sendBatchAsync(new ArrayList<>(chunk)));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            AnafResponse merged = notFoundResponse(knownNotFound);
+            for (CompletableFuture<AnafResponse> chunk : chunks) {
+                AnafResponse response = chunk.join();
+                merged.setCod(response.getCod());
+                merged.setData(response.getData());
+                if (response.getFound() != null) {
+                    merged.getFound().addAll(response.getFound());
+                }
+                if (response.getNotFound() != null) {
+                    merged.getNotFound().addAll(response.getNotFound());
+                }
+            }
+            return merged;
+        });
+    }
+
+    private CompletableFuture<AnafResponse> sendBatchAsync(List<Integer> cuis) {
         String dataResponse = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        DataRequest requestDate = new DataRequest(cui, dataResponse);
+        List<DataRequest> requestData = new ArrayList<>(cuis.size());
+        for (Integer cui : cuis) {
+            requestData.add(new DataRequest(cui, dataResponse));
+        }
 
-        String jsonPayload = "[" + gson.toJson(requestDate) + "]";
-        log.info("Sending request to ANAF API for CUI: {} with payload: {}", cui, jsonPayload);
+        String jsonPayload = gson.toJson(requestData);
+        log.info("Sending request to ANAF API for {} CUI(s) with payload: {}", cuis.size(), jsonPayload);
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(Anaf_Url_Api))
+                .timeout(requestTimeout)
                 .header("Content-Type", "application/json")
                 .header("User-Agent", "AplicatieVerificareJava/1.0")
                 .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
                 .build();
-        HttpResponse<String> response= client.send(request, HttpResponse.BodyHandlers.ofString());
-        String json_response= response.body();
-        return gson.fromJson(json_response, AnafResponse.class);
+        // the lookup has no side effects, so failed attempts are retried by the resilience layer
+        return resilience.execute(OutboundRateLimiter.ANAF_TVA, () -> rateLimiter.acquire(OutboundRateLimiter.ANAF_TVA)
+                .thenCompose(ignored -> inFlightLimiter.run(() -> resilience.withDeadline(client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                        .thenApplyAsync(this::readAnafResponse, responseExecutor)))));
+    }
+
+    private AnafResponse readAnafResponse(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            if (rateLimiter.isThrottled(OutboundRateLimiter.ANAF_TVA, response)) {
+                throw new ThrottledException("ANAF API throttled the request (HTTP " + response.statusCode() + ")");
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("ANAF API returned HTTP " + response.statusCode());
+            }
+            AnafResponse anafResponse = gson.getAdapter(AnafResponse.class).read(AnafJsonAdapters.newReader(body));
+            if (anafResponse == null) {
+                throw new IOException("ANAF API returned an empty response");
+            }
+            rememberOutcomes(anafResponse);
+            return anafResponse;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void rememberOutcomes(AnafResponse response) {
+        if (response.getFound() != null) {
+            for (FoundCompany company : response.getFound()) {
+                negativeCache.recordCuiFound((int) company.getCui());
+            }
+        }
+        if (response.getNotFound() != null) {
+            for (Object entry : response.getNotFound()) {
+                if (entry instanceof Number number) {
+                    negativeCache.recordCuiNotFound(number.intValue());
+                } else if (entry instanceof String text && text.trim().matches("\\d{1,9}")) {
+                    negativeCache.recordCuiNotFound(Integer.parseInt(text.trim()));
+                }
+            }
+        }
+    }
+
+    private AnafResponse notFoundResponse(List<Integer> cuis) {
+        AnafResponse response = new AnafResponse();
+        response.setCod(200);
+        response.setFound(new ArrayList<>());
+        response.setNotFound(new ArrayList<>(cuis));
+        return response;
+    }
+
+    private void enqueueLookup(Integer cui, CompletableFuture<AnafResponse> future) {
+        synchronized (pendingLock) {
+            pendingLookups.computeIfAbsent(cui, key -> new ArrayList<>()).add(future);
+            if (pendingLookups.size() >= batchMaxSize) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                batchScheduler.execute(this::flushPendingLookups);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = batchScheduler.schedule(this::flushPendingLookups, batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flushPendingLookups() {
+        Map<Integer, List<CompletableFuture<AnafResponse>>> batch;
+        synchronized (pendingLock) {
+            if (pendingLookups.isEmpty()) {
+                return;
+            }
+            batch = pendingLookups;
+            pendingLookups = new LinkedHashMap<>();
+            scheduledFlush = null;
+        }
+
+        if (batch.size() > 1) {
+            log.info("Coalesced {} concurrent ANAF lookups into one request", batch.size());
+        }
+        sendBatchAsync(new ArrayList<>(batch.keySet())).whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = AsyncResults.unwrap(error);
+                batch.values().forEach(waiters -> waiters.forEach(waiter -> waiter.completeExceptionally(cause)));
+                return;
+            }
+            batch.forEach((cui, waiters) -> {
+                AnafResponse single = responseForCui(response, cui);
+                waiters.forEach(waiter -> waiter.complete(single));
+            });
+        });
+    }
+
+    private AnafResponse responseForCui(AnafResponse batchResponse, Integer cui) {
+        AnafResponse single = new AnafResponse();
+        single.setCod(batchResponse.getCod());
+        single.setData(batchResponse.getData());
+
+        List<FoundCompany> found = new ArrayList<>();
+        if (batchResponse.getFound() != null) {
+            for (FoundCompany company : batchResponse.getFound()) {
+                if (company.getCui() == cui) {
+                    found.add(company);
+                }
+            }
+        }
+        single.setFound(found);
+
+        List<Object> notFound = new ArrayList<>();
+        if (batchResponse.getNotFound() != null) {
+            for (Object entry : batchResponse.getNotFound()) {
+                if (isSameCui(entry, cui)) {
+                    notFound.add(entry);
+                }
+            }
+        }
+        single.setNotFound(notFound);
+        return single;
+    }
+
+    // Gson reads the untyped notFound entries as Double (or String for quoted values)
+    private static boolean isSameCui(Object entry, Integer cui) {
+        if (entry instanceof Number number) {
+            return number.longValue() == cui;
+        }
+        if (entry instanceof String text) {
+            return text.trim().equals(String.valueOf(cui));
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchScheduler.shutdown();
     }
 }
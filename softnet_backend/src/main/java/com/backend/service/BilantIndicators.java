@@ -0,0 +1,81 @@
+package com.backend.service;
+
+import com.backend.model.entity.FinancialRecord;
+import com.backend.model.response.Indicator;
+
+import java.util.List;
+
+/**
+ * Fixed slots for the bilant indicators stored on a financial record. The values are
+ * collected in one pass over the response into a primitive array; indicators that are
+ * missing stay 0 and, if ANAF repeats a code, the last value wins.
+ */
+public final class BilantIndicators {
+
+    public static final int FIXED_ASSETS = 0;       // I1
+    public static final int LIABILITIES = 1;        // I7
+    public static final int TOTAL_CAPITAL = 2;      // I10
+    public static final int NET_TURNOVER = 3;       // I13
+    public static final int TOTAL_EXPENSES = 4;     // I15
+    public static final int NET_PROFIT = 5;         // I18
+    public static final int AVERAGE_EMPLOYEES = 6;  // I20
+
+    static final int SLOT_COUNT = 7;
+    static final int NO_SLOT = -1;
+
+    private BilantIndicators() {
+    }
+
+    public static long[] extract(List<Indicator> indicators) {
+        long[] values = new long[SLOT_COUNT];
+        if (indicators == null) {
+            return values;
+        }
+        for (int i = 0, size = indicators.size(); i < size; i++) {
+            Indicator indicator = indicators.get(i);
+            if (indicator == null) {
+                continue;
+            }
+            int slot = slotOf(indicator.getCodIndicator());
+            if (slot != NO_SLOT) {
+                values[slot] = indicator.getValoareIndicator();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * A financial record for {@code cui} and {@code year} holding the indicator slots; the stale
+     * flag is cleared.
+     */
+    public static FinancialRecord toFinancialRecord(String cui, Integer year, long[] values) {
+        return FinancialRecord.builder()
+                .cui(cui)
+                .year(year)
+                .netTurnover(values[NET_TURNOVER])
+                .netProfit(values[NET_PROFIT])
+                .totalExpenses(values[TOTAL_EXPENSES])
+                .liabilities(values[LIABILITIES])
+                .totalCapital(values[TOTAL_CAPITAL])
+                .fixedAssets(values[FIXED_ASSETS])
+                .averageEmployees((int) values[AVERAGE_EMPLOYEES])
+                .isStale(false)
+                .build();
+    }
+
+    static int slotOf(String code) {
+        if (code == null) {
+            return NO_SLOT;
+        }
+        return switch (code) {
+            case "I1" -> FIXED_ASSETS;
+            case "I7" -> LIABILITIES;
+            case "I10" -> TOTAL_CAPITAL;
+            case "I13" -> NET_TURNOVER;
+            case "I15" -> TOTAL_EXPENSES;
+            case "I18" -> NET_PROFIT;
+            case "I20" -> AVERAGE_EMPLOYEES;
+            default -> NO_SLOT;
+        };
+    }
+}
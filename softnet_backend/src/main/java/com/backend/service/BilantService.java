@@ -2,13 +2,24 @@ package com.backend.service;
 
 import com.backend.model.response.BilantResponse;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 @Service
 @Slf4j
@@ -16,43 +27,114 @@ public class BilantService {
     private final String Anaf_Url_Api="https://webservicesp.anaf.ro/bilant";
     private final HttpClient client;
     private final Gson gson;
-    public BilantService() {
-        this.client = HttpClient.newHttpClient();
-        this.gson = new Gson();
+    private final Duration requestTimeout;
+    private final InFlightLimiter inFlightLimiter;
+    private final OutboundRateLimiter rateLimiter;
+    private final AnafResilience resilience;
+    private final NegativeResultCache negativeCache;
+    private final ExecutorService responseExecutor;
+
+    public BilantService(HttpClient anafHttpClient,
+                         OutboundRateLimiter rateLimiter,
+                         AnafResilience resilience,
+                         NegativeResultCache negativeCache,
+                         @Qualifier("anafResponseExecutor") ExecutorService responseExecutor,
+                         @Value("${app.anaf.http.request-timeout-seconds:30}") long requestTimeoutSeconds,
+                         @Value("${app.anaf.http.max-in-flight:4}") int maxInFlight) {
+        this.client = anafHttpClient;
+        this.gson = AnafJsonAdapters.createGson();
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        this.inFlightLimiter = new InFlightLimiter(maxInFlight);
+        this.rateLimiter = rateLimiter;
+        this.resilience = resilience;
+        this.negativeCache = negativeCache;
+        this.responseExecutor = responseExecutor;
     }
 
     public BilantResponse checkBilant(int cui,int an) throws IOException, InterruptedException {
-        Thread.sleep(1000);
+        return AsyncResults.await(checkBilantAsync(cui, an));
+    }
+
+    public CompletableFuture<BilantResponse> checkBilantAsync(int cui, int an) {
+        if (negativeCache.isBilantMissing(cui, an)) {
+            log.info("No bilant was recently found for CUI: {}, Year: {}, skipping request", cui, an);
+            return CompletableFuture.completedFuture(null);
+        }
 
         String fullUrl = String.format("%s?an=%d&cui=%d", Anaf_Url_Api, an, cui);
-        log.info("Requesting Bilant data from ANAF API for CUI: {}, Year: {} - URL: {}", cui, an, fullUrl);
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(fullUrl))
+                .timeout(requestTimeout)
                 .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
                 .header("Accept", "application/json")
                 .GET()
                 .build();
-        
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        String json_response = response.body();
-
-        if (json_response != null && !json_response.trim().isEmpty()) {
-            if (json_response.trim().startsWith("{")) {
-                try {
-                    return gson.fromJson(json_response, BilantResponse.class);
-                } catch (Exception e) {
-                    System.err.println("Error parsing JSON response: " + e.getMessage());
-                    System.err.println("Response was: " + json_response);
-                    return null;
-                }
-            } else {
-                System.err.println("API returned non-JSON response: " + json_response);
-                return null;
+
+        // hedged copies take their own permit in hedged(), only when one is free right away
+        return resilience.execute(OutboundRateLimiter.BILANT, () -> rateLimiter.acquire(OutboundRateLimiter.BILANT)
+                .thenCompose(ignored -> {
+                    log.info("Requesting Bilant data from ANAF API for CUI: {}, Year: {} - URL: {}", cui, an, fullUrl);
+                    return resilience.hedged(OutboundRateLimiter.BILANT, () -> inFlightLimiter.run(
+                            () -> resilience.withDeadline(client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                                    .thenApplyAsync(response -> readBilant(response, cui, an), responseExecutor))));
+                }));
+    }
+
+    private BilantResponse readBilant(HttpResponse<InputStream> response, int cui, int an) {
+        try (InputStream body = response.body()) {
+            if (rateLimiter.isThrottled(OutboundRateLimiter.BILANT, response)) {
+                throw new ThrottledException("ANAF bilant API throttled the request (HTTP " + response.statusCode() + ")");
+            }
+            if (response.statusCode() >= 500) {
+                throw new IOException("ANAF bilant API returned HTTP " + response.statusCode());
             }
+            BilantResponse bilantResponse = parseBilant(body, an);
+            if (response.statusCode() == 200) {
+                rememberOutcome(cui, an, bilantResponse);
+            }
+            return bilantResponse;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void rememberOutcome(int cui, int an, BilantResponse bilantResponse) {
+        if (bilantResponse != null) {
+            negativeCache.recordBilantFound(cui, an);
         } else {
-            System.err.println("No valid bilant data found for year " + an + ".");
+            negativeCache.recordBilantMissing(cui, an);
+        }
+    }
+
+    /**
+     * The parsed statement, or null when ANAF answered with an empty body or a statement
+     * without indicators. Anything else that goes wrong reading the body is thrown, so a
+     * broken transfer is not remembered as a missing statement.
+     */
+    private BilantResponse parseBilant(InputStream body, int an) throws IOException {
+        JsonReader reader = AnafJsonAdapters.newReader(body);
+        JsonToken first;
+        try {
+            first = reader.peek();
+        } catch (EOFException e) {
+            log.warn("No valid bilant data found for year {}", an);
+            return null;
+        }
+        if (first != JsonToken.BEGIN_OBJECT) {
+            throw new IOException("ANAF bilant API returned a non-JSON response for year " + an);
+        }
+        BilantResponse bilantResponse;
+        try {
+            // an EOFException here is a truncated body, not an empty one, and is thrown
+            bilantResponse = gson.getAdapter(BilantResponse.class).read(reader);
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Unexpected bilant response for year " + an + ": " + e.getMessage(), e);
+        }
+        if (bilantResponse.getIndicatori() == null || bilantResponse.getIndicatori().isEmpty()) {
+            log.warn("No indicators in bilant response for year {}", an);
             return null;
         }
+        return bilantResponse;
     }
 }
@@ -0,0 +1,112 @@
+package com.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process LRU cache with a per-cache time to live. Synchronized, since the
+ * access-ordered LinkedHashMap mutates on every read.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public BoundedTtlCache(int maxEntries, Duration ttl) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos > 0) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized boolean contains(K key) {
+        return get(key) != null;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        Iterator<K> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (predicate.test(keys.next())) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(entries.size(), maxEntries, hits, misses, evictions, expirations);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CacheStats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package com.backend.service;
+
+import com.backend.model.entity.ImportJob;
+import com.backend.model.entity.ImportJobItem;
+import com.backend.model.response.AnafResponse;
+import com.backend.model.response.FoundCompany;
+import com.backend.model.response.ImportJobProgress;
+import com.backend.model.response.ImportThroughput;
+import com.backend.repository.ImportJobItemRepository;
+import com.backend.repository.ImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports large lists of CUIs in the background. Companies are looked up with batched ANAF
+ * calls and their financial years go through {@link CompanyFinancialService}, so the shared
+ * rate limits apply. Every item's outcome is checkpointed together with the job counters,
+ * and unfinished jobs are resumed when the application starts.
+ * <p>
+ * While an ANAF circuit is open or ANAF asked us to pause, the job waits instead of spending
+ * attempts. Failed items are retried with an exponential backoff (app.import.retry-delay-seconds).
+ */
+@Service
+@Slf4j
+public class BulkImportService {
+
+    private static final long THROUGHPUT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final AnafService anafService;
+    private final CompanyFinancialService companyFinancialService;
+    private final DatabaseService databaseService;
+    private final AnafResilience resilience;
+    private final OutboundRateLimiter rateLimiter;
+    private final ImportJobRepository jobRepository;
+    private final ImportJobItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int maxItems;
+    private final Duration retryDelay;
+    private final long upstreamWaitMs;
+
+    // jobs run one after another, each batch already uses the whole ANAF budget
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<UUID> queuedJobs = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> cancelRequests = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, ThroughputMeter> meters = new ConcurrentHashMap<>();
+
+    public BulkImportService(AnafService anafService,
+                             CompanyFinancialService companyFinancialService,
+                             DatabaseService databaseService,
+                             AnafResilience resilience,
+                             OutboundRateLimiter rateLimiter,
+                             ImportJobRepository jobRepository,
+                             ImportJobItemRepository itemRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.import.batch-size:100}") int batchSize,
+                             @Value("${app.import.max-attempts:3}") int maxAttempts,
+                             @Value("${app.import.max-items:100000}") int maxItems,
+                             @Value("${app.import.retry-delay-seconds:30}") long retryDelaySeconds,
+                             @Value("${app.import.upstream-wait-ms:5000}") long upstreamWaitMs) {
+        this.anafService = anafService;
+        this.companyFinancialService = companyFinancialService;
+        this.databaseService = databaseService;
+        this.resilience = resilience;
+        this.rateLimiter = rateLimiter;
+        this.jobRepository = jobRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, Math.min(batchSize, AnafService.MAX_BATCH_SIZE));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxItems = maxItems;
+        this.retryDelay = Duration.ofSeconds(Math.max(0, retryDelaySeconds));
+        this.upstreamWaitMs = Math.max(1, upstreamWaitMs);
+    }
+
+    /**
+     * Stores the job and its items and queues it for processing. CUIs may carry the RO prefix;
+     * duplicates are dropped, keeping the first occurrence.
+     */
+    public ImportJob createJob(Collection<String> cuis, int years) {
+        if (years < 1 || years > 5) {
+            throw new IllegalArgumentException("years must be between 1 and 5");
+        }
+        if (cuis == null || cuis.isEmpty()) {
+            throw new IllegalArgumentException("No CUIs to import");
+        }
+
+        Set<String> distinctCuis = new LinkedHashSet<>();
+        for (String cui : cuis) {
+            distinctCuis.add(Cuis.normalize(cui));
+        }
+        if (distinctCuis.size() > maxItems) {
+            throw new IllegalArgumentException("Too many CUIs in one import: " + distinctCuis.size() + " (max " + maxItems + ")");
+        }
+
+        ImportJob job = transactionTemplate.execute(status -> {
+            ImportJob newJob = jobRepository.save(ImportJob.builder()
+                    .status(ImportJob.Status.PENDING)
+                    .years(years)
+                    .totalItems(distinctCuis.size())
+                    .processedItems(0)
+                    .importedItems(0)
+                    .notFoundItems(0)
+                    .failedItems(0)
+                    .build());
+
+            List<ImportJobItem> items = new ArrayList<>(distinctCuis.size());
+            int position = 0;
+            for (String cui : distinctCuis) {
+                items.add(ImportJobItem.builder()
+                        .jobId(newJob.getGguid())
+                        .position(position++)
+                        .cui(cui)
+                        .status(ImportJobItem.Status.PENDING)
+                        .attempts(0)
+                        .build());
+            }
+            itemRepository.saveAll(items);
+            return newJob;
+        });
+
+        log.info("Created import job {} with {} CUIs and {} years", job.getGguid(), distinctCuis.size(), years);
+        submit(job.getGguid());
+        return job;
+    }
+
+    /**
+     * Reads CUIs from a CSV or plain text upload. Values may be separated by commas, semicolons,
+     * tabs or new lines; cells that are not a CUI (headers, names) are ignored.
+     */
+    public List<String> parseCuis(Reader source) throws IOException {
+        List<String> cuis = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            for (String cell : line.split("[,;\\t]")) {
+                String value = cell.replace("\"", "").replace(" ", "").trim();
+                if (Cuis.isCui(value)) {
+                    cuis.add(value);
+                }
+            }
+        }
+        return cuis;
+    }
+
+    public List<ImportJobProgress> getJobs() {
+        return jobRepository.findAllByOrderByInsertTimestampDesc().stream()
+                .map(this::toProgress)
+                .toList();
+    }
+
+    public Optional<ImportJobProgress> getProgress(UUID jobId) {
+        return jobRepository.findById(jobId).map(this::toProgress);
+    }
+
+    public Optional<ImportThroughput> getThroughput(UUID jobId) {
+        return jobRepository.findById(jobId).map(job -> {
+            ThroughputMeter meter = meters.get(jobId);
+            int pending = job.getTotalItems() - job.getProcessedItems();
+            if (meter == null) {
+                return ImportThroughput.builder()
+                        .jobId(jobId)
+                        .running(false)
+                        .itemsPerMinute(averageFromTimestamps(job))
+                        .build();
+            }
+            return meter.snapshot(jobId, pending);
+        });
+    }
+
+    /**
+     * Asks a pending or running job to stop after the batch in progress.
+     */
+    public boolean cancelJob(UUID jobId) {
+        Optional<ImportJob> job = jobRepository.findById(jobId);
+        if (job.isEmpty()) {
+            return false;
+        }
+        ImportJob.Status status = job.get().getStatus();
+        if (status == ImportJob.Status.PENDING || status == ImportJob.Status.RUNNING) {
+            cancelRequests.add(jobId);
+            log.info("Cancellation requested for import job {}", jobId);
+        }
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<ImportJob> unfinished = jobRepository.findByStatusInOrderByInsertTimestampAsc(
+                EnumSet.of(ImportJob.Status.PENDING, ImportJob.Status.RUNNING));
+        for (ImportJob job : unfinished) {
+            log.info("Resuming import job {} ({} of {} CUIs done)", job.getGguid(), job.getProcessedItems(), job.getTotalItems());
+            submit(job.getGguid());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private void submit(UUID jobId) {
+        if (queuedJobs.add(jobId)) {
+            runner.execute(() -> {
+                try {
+                    runJob(jobId);
+                } catch (RuntimeException e) {
+                    // the job stays RUNNING and is picked up again on the next start
+                    log.error("Import job {} stopped unexpectedly", jobId, e);
+                } finally {
+                    queuedJobs.remove(jobId);
+                    meters.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void runJob(UUID jobId) {
+        ImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == ImportJob.Status.COMPLETED || job.getStatus() == ImportJob.Status.CANCELLED) {
+            return;
+        }
+
+        job.setStatus(ImportJob.Status.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job = jobRepository.save(job);
+        ThroughputMeter meter = new ThroughputMeter();
+        meters.put(jobId, meter);
+
+        boolean waitingForUpstream = false;
+        while (!Thread.currentThread().isInterrupted()) {
+            if (cancelRequests.remove(jobId)) {
+                finish(job, ImportJob.Status.CANCELLED);
+                return;
+            }
+
+            try {
+                // items would only burn their attempts on calls that cannot succeed right now
+                if (!isUpstreamAvailable()) {
+                    if (!waitingForUpstream) {
+                        log.info("ANAF unavailable, import job {} waits until calls are allowed again", jobId);
+                        waitingForUpstream = true;
+                    }
+                    Thread.sleep(upstreamWaitMs);
+                    continue;
+                }
+                waitingForUpstream = false;
+
+                List<ImportJobItem> batch = itemRepository.findDueItems(
+                        jobId, ImportJobItem.Status.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    LocalDateTime nextAttemptAt = itemRepository.findNextAttemptAt(jobId, ImportJobItem.Status.PENDING);
+                    if (nextAttemptAt == null) {
+                        finish(job, ImportJob.Status.COMPLETED);
+                        return;
+                    }
+                    // wake up regularly so a cancellation is not held up by a long backoff
+                    long untilRetry = Duration.between(LocalDateTime.now(), nextAttemptAt).toMillis();
+                    Thread.sleep(Math.max(1, Math.min(untilRetry, upstreamWaitMs)));
+                    continue;
+                }
+
+                long started = System.nanoTime();
+                int finished = processBatch(job, batch);
+                job = checkpoint(job, batch);
+                meter.record(finished, System.nanoTime() - started);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean isUpstreamAvailable() {
+        for (String endpoint : List.of(OutboundRateLimiter.ANAF_TVA, OutboundRateLimiter.BILANT)) {
+            if (resilience.isOpen(endpoint) || rateLimiter.isPaused(endpoint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks the batch up in one ANAF call, stores the companies found with one upsert and then
+     * fetches their financial years concurrently. Returns how many items reached a final status.
+     */
+    private int processBatch(ImportJob job, List<ImportJobItem> batch) throws InterruptedException {
+        List<Integer> cuis = new ArrayList<>(batch.size());
+        for (ImportJobItem item : batch) {
+            cuis.add(Integer.valueOf(item.getCui()));
+        }
+
+        AnafResponse response;
+        try {
+            response = anafService.checkAnafBatch(cuis);
+        } catch (IOException e) {
+            log.warn("ANAF lookup failed for a batch of import job {}: {}", job.getGguid(), e.getMessage());
+            int finished = 0;
+            for (ImportJobItem item : batch) {
+                finished += recordFailure(job, item, e) ? 1 : 0;
+            }
+            return finished;
+        }
+
+        Map<String, FoundCompany> foundByCui = new HashMap<>();
+        if (response.getFound() != null) {
+            for (FoundCompany company : response.getFound()) {
+                if (company != null && company.getDateGenerale() != null) {
+                    foundByCui.put(String.valueOf(company.getDateGenerale().getCui()), company);
+                }
+            }
+        }
+
+        int finished = 0;
+        List<ImportJobItem> foundItems = new ArrayList<>();
+        for (ImportJobItem item : batch) {
+            if (foundByCui.containsKey(item.getCui())) {
+                foundItems.add(item);
+            } else {
+                complete(job, item, ImportJobItem.Status.NOT_FOUND);
+                finished++;
+            }
+        }
+
+        try {
+            databaseService.saveFoundCompanies(new ArrayList<>(foundByCui.values()));
+        } catch (RuntimeException e) {
+            log.warn("Storing companies failed for a batch of import job {}: {}", job.getGguid(), e.getMessage());
+            for (ImportJobItem item : foundItems) {
+                finished += recordFailure(job, item, e) ? 1 : 0;
+            }
+            return finished;
+        }
+
+        List<ImportJobItem> storedItems = new ArrayList<>();
+        List<CompletableFuture<Void>> financials = new ArrayList<>();
+        for (ImportJobItem item : foundItems) {
+            try {
+                financials.add(companyFinancialService.processFinancialYearsAsync(item.getCui(), job.getYears()));
+                storedItems.add(item);
+            } catch (RuntimeException e) {
+                finished += recordFailure(job, item, e) ? 1 : 0;
+            }
+        }
+
+        // a year ANAF could not be asked about fails the item (FinancialYearsException), so it is
+        // retried instead of being counted as imported without that year
+        for (int i = 0; i < storedItems.size(); i++) {
+            try {
+                AsyncResults.await(financials.get(i));
+                complete(job, storedItems.get(i), ImportJobItem.Status.IMPORTED);
+                finished++;
+            } catch (IOException | RuntimeException e) {
+                finished += recordFailure(job, storedItems.get(i), e) ? 1 : 0;
+            }
+        }
+        return finished;
+    }
+
+    private void complete(ImportJob job, ImportJobItem item, ImportJobItem.Status status) {
+        item.setStatus(status);
+        item.setProcessedAt(LocalDateTime.now());
+        item.setNextAttemptAt(null);
+        item.setErrorMessage(null);
+        job.setProcessedItems(job.getProcessedItems() + 1);
+        if (status == ImportJobItem.Status.IMPORTED) {
+            job.setImportedItems(job.getImportedItems() + 1);
+        } else if (status == ImportJobItem.Status.NOT_FOUND) {
+            job.setNotFoundItems(job.getNotFoundItems() + 1);
+        } else {
+            job.setFailedItems(job.getFailedItems() + 1);
+        }
+    }
+
+    /**
+     * The item stays PENDING and is retried after a backoff until it runs out of attempts.
+     * Calls refused by an open circuit or throttling do not count as attempts; the item only
+     * waits for ANAF to accept calls again.
+     */
+    private boolean recordFailure(ImportJob job, ImportJobItem item, Exception error) {
+        if (isUpstreamUnavailable(error)) {
+            item.setErrorMessage(error.getMessage());
+            item.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(upstreamWaitMs)));
+            return false;
+        }
+        int attempts = item.getAttempts() == null ? 1 : item.getAttempts() + 1;
+        item.setAttempts(attempts);
+        if (attempts < maxAttempts) {
+            item.setErrorMessage(error.getMessage());
+            item.setNextAttemptAt(LocalDateTime.now().plus(retryDelay.multipliedBy(1L << Math.min(attempts - 1, 16))));
+            return false;
+        }
+        complete(job, item, ImportJobItem.Status.FAILED);
+        item.setErrorMessage(error.getMessage());
+        return true;
+    }
+
+    private static boolean isUpstreamUnavailable(Throwable error) {
+        Throwable cause = AsyncResults.unwrap(error);
+        return cause instanceof CircuitOpenException || cause instanceof ThrottledException
+                || cause instanceof FinancialYearsException yearsException && yearsException.isUpstreamUnavailable();
+    }
+
+    /**
+     * Item outcomes and job counters are written in the same transaction, so a restart never
+     * counts an item twice.
+     */
+    private ImportJob checkpoint(ImportJob job, List<ImportJobItem> batch) {
+        job.setLastCheckpointAt(LocalDateTime.now());
+        return transactionTemplate.execute(status -> {
+            itemRepository.saveAll(batch);
+            return jobRepository.save(job);
+        });
+    }
+
+    private void finish(ImportJob job, ImportJob.Status status) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        log.info("Import job {} {}: {} imported, {} not found, {} failed", job.getGguid(), status.name().toLowerCase(),
+                job.getImportedItems(), job.getNotFoundItems(), job.getFailedItems());
+    }
+
+    private ImportJobProgress toProgress(ImportJob job) {
+        int total = job.getTotalItems();
+        int processed = job.getProcessedItems();
+        return ImportJobProgress.builder()
+                .jobId(job.getGguid())
+                .status(job.getStatus().name())
+                .years(job.getYears())
+                .totalItems(total)
+                .processedItems(processed)
+                .importedItems(job.getImportedItems())
+                .notFoundItems(job.getNotFoundItems())
+                .failedItems(job.getFailedItems())
+                .pendingItems(total - processed)
+                .percentComplete(total == 0 ? 100.0 : Math.round(processed * 1000.0 / total) / 10.0)
+                .createdAt(job.getInsertTimestamp())
+                .startedAt(job.getStartedAt())
+                .lastCheckpointAt(job.getLastCheckpointAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private double averageFromTimestamps(ImportJob job) {
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : job.getLastCheckpointAt();
+        if (job.getStartedAt() == null || end == null) {
+            return 0;
+        }
+        double minutes = Duration.between(job.getStartedAt(), end).toMillis() / 60_000.0;
+        return minutes > 0 ? job.getProcessedItems() / minutes : 0;
+    }
+
+    private static final class ThroughputMeter {
+        private final long startedNanos = System.nanoTime();
+        private final Deque<long[]> window = new ArrayDeque<>();
+        private long items;
+        private int lastBatchSize;
+        private long lastBatchNanos;
+
+        synchronized void record(int finished, long batchNanos) {
+            long now = System.nanoTime();
+            items += finished;
+            lastBatchSize = finished;
+            lastBatchNanos = batchNanos;
+            window.addLast(new long[]{now, finished});
+            while (!window.isEmpty() && now - window.peekFirst()[0] > THROUGHPUT_WINDOW_NANOS) {
+                window.removeFirst();
+            }
+        }
+
+        synchronized ImportThroughput snapshot(UUID jobId, int pending) {
+            long now = System.nanoTime();
+            double runMinutes = (now - startedNanos) / 60_000_000_000d;
+            double average = runMinutes > 0 ? items / runMinutes : 0;
+
+            long recentItems = 0;
+            for (long[] checkpoint : window) {
+                if (now - checkpoint[0] <= THROUGHPUT_WINDOW_NANOS) {
+                    recentItems += checkpoint[1];
+                }
+            }
+            double windowMinutes = Math.min(runMinutes, THROUGHPUT_WINDOW_NANOS / 60_000_000_000d);
+            double recent = windowMinutes > 0 ? recentItems / windowMinutes : 0;
+            double rate = recent > 0 ? recent : average;
+
+            return ImportThroughput.builder()
+                    .jobId(jobId)
+                    .running(true)
+                    .itemsPerMinute(average)
+                    .recentItemsPerMinute(recent)
+                    .lastBatchSize(lastBatchSize)
+                    .lastBatchMillis(TimeUnit.NANOSECONDS.toMillis(lastBatchNanos))
+                    .estimatedSecondsRemaining(rate > 0 ? Math.round(pending / rate * 60) : null)
+                    .build();
+        }
+    }
+}
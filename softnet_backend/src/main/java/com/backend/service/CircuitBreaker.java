@@ -0,0 +1,107 @@
+package com.backend.service;
+
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the
+ * circuit opens and calls are rejected for {@code openDuration}; then a single trial call is
+ * let through (half open) and its outcome closes or re-opens the circuit.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean trialInFlight;
+
+    private long successes;
+    private long failures;
+    private long rejected;
+    private long timesOpened;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Returns false if the call must not be made. A permitted call must be followed by
+     * exactly one of {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}.
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (state == State.OPEN && now - openUntilNanos >= 0) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        successes++;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened++;
+            }
+            state = State.OPEN;
+            openUntilNanos = System.nanoTime() + openNanos;
+        }
+    }
+
+    // the call ended without telling anything about upstream health (e.g. throttling)
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openUntilNanos < 0;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getSuccesses() {
+        return successes;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+}
@@ -0,0 +1,13 @@
+package com.backend.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown without contacting ANAF while the circuit breaker of an endpoint is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,130 @@
+package com.backend.service;
+
+import com.backend.model.CompanyBatchRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads many companies with their financial records in one request. The data comes from one
+ * streamed join and each company is written to the response as soon as its rows are read.
+ */
+@Service
+@Slf4j
+public class CompanyBatchReadService {
+
+    // companies written between flushes of the response
+    private static final int FLUSH_EVERY = 25;
+
+    private final DatabaseService databaseService;
+    private final CompanyFinancialService companyFinancialService;
+    private final ObjectMapper objectMapper;
+    private final int maxCuis;
+
+    public CompanyBatchReadService(DatabaseService databaseService,
+                                   CompanyFinancialService companyFinancialService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.batch-read.max-cuis:500}") int maxCuis) {
+        this.databaseService = databaseService;
+        this.companyFinancialService = companyFinancialService;
+        this.objectMapper = objectMapper;
+        this.maxCuis = maxCuis;
+    }
+
+    /**
+     * Validates the request before anything is written, so errors still become a normal 400.
+     * Duplicates are dropped and the RO prefix is removed.
+     */
+    public BatchQuery prepare(CompanyBatchRequest request) {
+        if (request == null || request.getCuis() == null || request.getCuis().isEmpty()) {
+            throw new IllegalArgumentException("No CUIs requested");
+        }
+
+        Set<String> cuis = new LinkedHashSet<>();
+        for (String cui : request.getCuis()) {
+            cuis.add(Cuis.normalize(cui));
+        }
+        if (cuis.size() > maxCuis) {
+            throw new IllegalArgumentException("Too many CUIs in one request: " + cuis.size() + " (max " + maxCuis + ")");
+        }
+
+        int endYear = request.getEndYear() != null ? request.getEndYear() : companyFinancialService.getCurrentFinancialYear();
+        int startYear = request.getStartYear() != null ? request.getStartYear() : endYear - 2;
+        if (startYear > endYear) {
+            throw new IllegalArgumentException("startYear must not be after endYear");
+        }
+        return new BatchQuery(new ArrayList<>(cuis), startYear, endYear);
+    }
+
+    /**
+     * Writes {"startYear", "endYear", "companies": [...], "notFound": [...]}. Companies come
+     * in CUI order; requested CUIs that are not stored are listed in notFound.
+     */
+    public void write(BatchQuery query, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Set<String> found = new HashSet<>();
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("startYear", query.getStartYear());
+            generator.writeNumberField("endYear", query.getEndYear());
+            generator.writeArrayFieldStart("companies");
+
+            try {
+                databaseService.streamCompanies(query.getCuis(), query.getStartYear(), query.getEndYear(), company -> {
+                    try {
+                        generator.writeObject(company);
+                        found.add(company.getCui());
+                        if (found.size() % FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("notFound");
+            for (String cui : query.getCuis()) {
+                if (!found.contains(cui)) {
+                    generator.writeString(cui);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        log.info("Batch read of {} CUIs returned {} companies in {} ms",
+                query.getCuis().size(), found.size(), System.currentTimeMillis() - startTime);
+    }
+
+    public static class BatchQuery {
+        private final List<String> cuis;
+        private final int startYear;
+        private final int endYear;
+
+        BatchQuery(List<String> cuis, int startYear, int endYear) {
+            this.cuis = cuis;
+            this.startYear = startYear;
+            this.endYear = endYear;
+        }
+
+        public List<String> getCuis() { return cuis; }
+        public int getStartYear() { return startYear; }
+        public int getEndYear() { return endYear; }
+    }
+}
@@ -0,0 +1,92 @@
+package com.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each company is requested through the API so the background refresher
+ * can keep the popular ones fresh first. Counts are kept in memory only and are cleared
+ * once a company has been refreshed.
+ */
+@Component
+public class CompanyDemandTracker {
+
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public CompanyDemandTracker(@Value("${app.refresh.max-tracked-companies:10000}") int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Counts a request for a stored company. Once the tracker is full, a new company takes the
+     * place of the least requested one.
+     */
+    public void recordRequest(String cui) {
+        LongAdder counter = requests.get(cui);
+        if (counter == null) {
+            counter = track(cui);
+        }
+        counter.increment();
+    }
+
+    private synchronized LongAdder track(String cui) {
+        LongAdder counter = requests.get(cui);
+        if (counter != null) {
+            return counter;
+        }
+        if (requests.size() >= maxEntries) {
+            evictLeastRequested();
+        }
+        counter = new LongAdder();
+        requests.put(cui, counter);
+        return counter;
+    }
+
+    // a linear scan, but only when a new company arrives while the tracker is full
+    private void evictLeastRequested() {
+        String coldest = null;
+        long lowest = Long.MAX_VALUE;
+        for (Map.Entry<String, LongAdder> entry : requests.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count < lowest) {
+                lowest = count;
+                coldest = entry.getKey();
+            }
+        }
+        if (coldest != null) {
+            requests.remove(coldest);
+        }
+    }
+
+    /**
+     * The most requested CUIs, highest count first.
+     */
+    public List<String> mostRequested(int limit) {
+        List<Map.Entry<String, Long>> snapshot = new ArrayList<>(requests.size());
+        requests.forEach((cui, counter) -> snapshot.add(Map.entry(cui, counter.sum())));
+        snapshot.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+
+        List<String> cuis = new ArrayList<>(Math.min(limit, snapshot.size()));
+        for (int i = 0; i < snapshot.size() && i < limit; i++) {
+            cuis.add(snapshot.get(i).getKey());
+        }
+        return cuis;
+    }
+
+    public void clear(Collection<String> cuis) {
+        cuis.forEach(requests::remove);
+    }
+
+    public int getTrackedCompanies() {
+        return requests.size();
+    }
+}
@@ -2,16 +2,28 @@ package com.backend.service;
 
 import com.backend.model.entity.CompanyData;
 import com.backend.model.entity.FinancialRecord;
-import com.backend.model.response.AnafResponse;
 import com.backend.model.response.BilantResponse;
+import com.backend.model.response.CompanyFullView;
+import com.backend.model.response.CompanyLookupResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -21,74 +33,411 @@ public class CompanyFinancialService {
     private final AnafService anafService;
     private final BilantService bilantService;
     private final DatabaseService databaseService;
+    private final CompanyDemandTracker demandTracker;
+    private final OutboundRateLimiter rateLimiter;
+    private final AnafResilience resilience;
+
+    private final SingleFlight<String, CompanyData> companyFlights = new SingleFlight<>();
+    private final SingleFlight<YearKey, FinancialRecord> yearFlights = new SingleFlight<>();
+
+    @Value("${app.financial.parallel-years:true}")
+    private boolean parallelYears;
+
+    // the newest N financial years are always re-downloaded, older ones only when missing or stale
+    @Value("${app.financial.refresh-horizon-years:1}")
+    private int refreshHorizonYears;
+
+    // stale-while-revalidate: served as is below the soft TTL, refreshed in the background
+    // between the soft and hard TTL, waited for (up to the upstream timeout) past the hard TTL
+    @Value("${app.swr.soft-ttl-minutes:1440}")
+    private long softTtlMinutes;
+
+    @Value("${app.swr.hard-ttl-minutes:10080}")
+    private long hardTtlMinutes;
+
+    @Value("${app.swr.upstream-timeout-ms:5000}")
+    private long upstreamTimeoutMs;
+
+    private record YearKey(String cui, int year) {
+    }
 
     public CompanyData processCompanyCompletely(String cui, int numberOfYears) throws IOException, InterruptedException {
+        return AsyncResults.await(processCompanyCompletelyAsync(cui, numberOfYears));
+    }
+
+    /**
+     * Non-blocking variant of {@link #processCompanyCompletely}. The returned future completes
+     * once the company and all requested years have been fetched and stored; no servlet thread
+     * is held while waiting on ANAF.
+     */
+    public CompletableFuture<CompanyData> processCompanyCompletelyAsync(String cui, int numberOfYears) {
+        return processCompanyAsync(cui, numberOfYears, true);
+    }
+
+    /**
+     * With {@code tolerateYearFailures} false the future fails with a {@link FinancialYearsException}
+     * when some years could not be fetched, so the caller does not present them as refreshed.
+     */
+    private CompletableFuture<CompanyData> processCompanyAsync(String cui, int numberOfYears, boolean tolerateYearFailures) {
         log.info("Processing company with CUI: {} for {} years", cui, numberOfYears);
-        
-        AnafResponse anafResponse = anafService.checkAnaf(Integer.parseInt(cui));
-        if (anafResponse == null || anafResponse.getFound() == null || anafResponse.getFound().isEmpty()) {
-            log.warn("No company found for CUI: {}", cui);
-            return null;
+
+        return fetchAndSaveCompany(cui).thenCompose(companyData -> {
+            if (companyData == null) {
+                log.warn("No company found for CUI: {}", cui);
+                return CompletableFuture.completedFuture(null);
+            }
+            demandTracker.recordRequest(cui);
+
+            return processFinancialYearsAsync(cui, numberOfYears)
+                    .exceptionally(error -> {
+                        // a lookup is still answered with the years that did arrive
+                        if (tolerateYearFailures && AsyncResults.unwrap(error) instanceof FinancialYearsException) {
+                            return null;
+                        }
+                        throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                    })
+                    .thenApply(ignored -> companyData);
+        });
+    }
+
+    /**
+     * Answers from the database whenever possible. Data within the soft TTL is returned as is;
+     * older data is returned immediately while a refresh runs in the background. Past the hard
+     * TTL the refresh is awaited for a short while, and if ANAF is unavailable or too slow the
+     * stored data is still returned, flagged as stale. Only unknown companies always wait on ANAF.
+     */
+    public CompletableFuture<CompanyLookupResult> lookupCompanyAsync(String cui, int numberOfYears) {
+        Optional<CompanyData> stored = databaseService.getCompanyByCui(cui);
+        if (stored.isEmpty()) {
+            return processCompanyAsync(cui, numberOfYears, false).handle((companyData, error) -> {
+                if (error == null) {
+                    return companyData == null ? null
+                            : lookupResult(companyData, numberOfYears, CompanyLookupResult.Freshness.FRESH);
+                }
+                // the company itself was stored, only some of its years are missing
+                if (AsyncResults.unwrap(error) instanceof FinancialYearsException) {
+                    return databaseService.getCompanyByCui(cui)
+                            .map(storedCompany -> lookupResult(storedCompany, numberOfYears, CompanyLookupResult.Freshness.STALE))
+                            .orElse(null);
+                }
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            });
+        }
+        demandTracker.recordRequest(cui);
+
+        CompanyData companyData = stored.get();
+        Duration age = dataAge(companyData);
+        if (age.compareTo(Duration.ofMinutes(softTtlMinutes)) < 0) {
+            return CompletableFuture.completedFuture(lookupResult(companyData, numberOfYears, CompanyLookupResult.Freshness.FRESH));
+        }
+
+        if (!isUpstreamAvailable()) {
+            log.info("ANAF unavailable, serving stored data for CUI: {} (age: {})", cui, age);
+            return CompletableFuture.completedFuture(lookupResult(companyData, numberOfYears, CompanyLookupResult.Freshness.STALE));
         }
 
-        CompanyData companyData = databaseService.saveCompanyData(anafResponse);
-        log.info("Saved company data for: {}", companyData.getCompanyName());
+        CompletableFuture<CompanyData> refresh = processCompanyAsync(cui, numberOfYears, false);
+        refresh.whenComplete((refreshed, error) -> {
+            if (error != null) {
+                log.warn("Background refresh failed for CUI: {}: {}", cui, AsyncResults.unwrap(error).getMessage());
+            }
+        });
+
+        if (age.compareTo(Duration.ofMinutes(hardTtlMinutes)) < 0) {
+            return CompletableFuture.completedFuture(lookupResult(companyData, numberOfYears, CompanyLookupResult.Freshness.REVALIDATING));
+        }
+
+        // the timeout only applies to this caller, the refresh itself keeps running
+        return refresh.copy()
+                .orTimeout(upstreamTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((refreshed, error) -> {
+                    if (error == null && refreshed != null) {
+                        return lookupResult(refreshed, numberOfYears, CompanyLookupResult.Freshness.FRESH);
+                    }
+                    log.info("Serving stale data for CUI: {} (age: {}), ANAF refresh did not complete in time: {}", cui, age,
+                            error != null ? AsyncResults.unwrap(error).getMessage() : "company not found");
+                    return lookupResult(companyData, numberOfYears, CompanyLookupResult.Freshness.STALE);
+                });
+    }
+
+    // a refresh calls both the company lookup and bilant for every year
+    private boolean isUpstreamAvailable() {
+        for (String endpoint : List.of(OutboundRateLimiter.ANAF_TVA, OutboundRateLimiter.BILANT)) {
+            if (rateLimiter.isPaused(endpoint) || resilience.isOpen(endpoint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // a company never confirmed against ANAF is past any TTL, however recently its row was inserted
+    private Duration dataAge(CompanyData companyData) {
+        LocalDateTime verifiedAt = companyData.getLastVerifiedAt();
+        return verifiedAt == null ? Duration.ofDays(36500) : Duration.between(verifiedAt, LocalDateTime.now());
+    }
+
+    private CompanyLookupResult lookupResult(CompanyData companyData, int numberOfYears, CompanyLookupResult.Freshness freshness) {
+        int endYear = getCurrentFinancialYear();
+        Duration age = dataAge(companyData);
+        return CompanyLookupResult.builder()
+                .freshness(freshness)
+                .stale(freshness != CompanyLookupResult.Freshness.FRESH)
+                .lastVerifiedAt(companyData.getLastVerifiedAt())
+                .ageSeconds(Math.max(0, age.getSeconds()))
+                .company(companyData)
+                .financialRecords(databaseService.getFinancialRecordsByCuiAndYearRange(
+                        companyData.getCui(), endYear - numberOfYears + 1, endYear))
+                .build();
+    }
 
+    /**
+     * Fetches and stores the last {@code numberOfYears} financial years for a company that is
+     * already stored, e.g. after a batched ANAF lookup. Years ANAF has no statement for are
+     * skipped; if a year could not be fetched at all, the future fails with a
+     * {@link FinancialYearsException} once the other years are stored.
+     */
+    public CompletableFuture<Void> processFinancialYearsAsync(String cui, int numberOfYears) {
         int startYear = getCurrentFinancialYear();
+        List<Integer> years = new ArrayList<>();
         for (int i = 0; i < numberOfYears; i++) {
-            int year = startYear - i;
-            try {
-                BilantResponse bilantResponse = bilantService.checkBilant(Integer.parseInt(cui), year);
+            years.add(startYear - i);
+        }
+
+        List<Integer> yearsToFetch = yearsNeedingRefresh(cui, years);
+        return parallelYears
+                ? fetchYearsInParallel(cui, yearsToFetch)
+                : fetchYearsSequentially(cui, yearsToFetch);
+    }
+
+    /**
+     * Published balance sheets for closed years do not change, so years older than the refresh
+     * horizon that are already stored (and not marked stale) are served from the database.
+     */
+    private List<Integer> yearsNeedingRefresh(String cui, List<Integer> years) {
+        if (years.isEmpty()) {
+            return years;
+        }
+        int minYear = years.stream().min(Integer::compare).get();
+        int maxYear = years.stream().max(Integer::compare).get();
+        Map<Integer, FinancialRecord> stored = new HashMap<>();
+        for (FinancialRecord financialRecord : databaseService.getFinancialRecordsByCuiAndYearRange(cui, minYear, maxYear)) {
+            stored.put(financialRecord.getYear(), financialRecord);
+        }
+
+        List<Integer> yearsToFetch = new ArrayList<>();
+        for (Integer year : years) {
+            if (canServeFromDatabase(year, stored.get(year))) {
+                log.info("Serving closed year {} for CUI: {} from the database", year, cui);
+            } else {
+                yearsToFetch.add(year);
+            }
+        }
+        return yearsToFetch;
+    }
+
+    private boolean canServeFromDatabase(int year, FinancialRecord storedRecord) {
+        return storedRecord != null
+                && !Boolean.TRUE.equals(storedRecord.getIsStale())
+                && year <= getCurrentFinancialYear() - refreshHorizonYears;
+    }
+
+    /**
+     * One ANAF lookup and one FIRMA write per CUI at a time; concurrent callers share the result.
+     */
+    private CompletableFuture<CompanyData> fetchAndSaveCompany(String cui) {
+        return companyFlights.execute(cui, () -> anafService.checkAnafAsync(Integer.parseInt(cui))
+                .thenApply(anafResponse -> {
+                    if (anafResponse == null || anafResponse.getFound() == null || anafResponse.getFound().isEmpty()) {
+                        return null;
+                    }
+                    CompanyData companyData = databaseService.saveCompanyData(anafResponse);
+                    log.info("Saved company data for: {}", companyData.getCompanyName());
+                    return companyData;
+                }));
+    }
+
+    private CompletableFuture<Void> fetchYearsSequentially(String cui, List<Integer> years) {
+        Map<Integer, Throwable> failures = new ConcurrentSkipListMap<>();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (Integer year : years) {
+            chain = chain.thenCompose(ignored -> fetchAndSaveYear(cui, year)
+                    .handle((financialRecord, error) -> {
+                        if (error != null) {
+                            recordYearFailure(failures, cui, year, error);
+                        }
+                        return null;
+                    }));
+        }
+        return chain.thenRun(() -> throwIfYearsFailed(cui, failures));
+    }
+
+    /**
+     * Requests every year at once (paced by the shared outbound limiter) and stores
+     * whatever arrived in a single transaction once the slowest year has answered.
+     * Years already being fetched by another caller are joined rather than requested again.
+     */
+    private CompletableFuture<Void> fetchYearsInParallel(String cui, List<Integer> years) {
+        Map<Integer, Throwable> failures = new ConcurrentSkipListMap<>();
+        List<CompletableFuture<Void>> joined = new ArrayList<>();
+        Map<YearKey, SingleFlight.Claim<FinancialRecord>> owned = new LinkedHashMap<>();
+        List<CompletableFuture<BilantResponse>> fetches = new ArrayList<>();
+
+        for (Integer year : years) {
+            YearKey key = new YearKey(cui, year);
+            SingleFlight.Claim<FinancialRecord> claim = yearFlights.claim(key);
+            if (!claim.isOwner()) {
+                joined.add(claim.getResult().handle((financialRecord, error) -> {
+                    if (error != null) {
+                        recordYearFailure(failures, cui, year, error);
+                    }
+                    return null;
+                }));
+                continue;
+            }
+            owned.put(key, claim);
+            fetches.add(bilantService.checkBilantAsync(Integer.parseInt(cui), year)
+                    .exceptionally(error -> {
+                        recordYearFailure(failures, cui, year, error);
+                        return null;
+                    }));
+        }
+
+        CompletableFuture<Void> ownedYears = CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0])).thenAccept(ignored -> {
+            List<BilantResponse> responses = new ArrayList<>();
+            int index = 0;
+            for (YearKey key : owned.keySet()) {
+                BilantResponse bilantResponse = fetches.get(index++).join();
                 if (bilantResponse != null) {
-                    FinancialRecord financialRecord = databaseService.saveFinancialRecord(bilantResponse);
-                    log.info("Saved financial data for year {} - Net Turnover: {}", 
-                            year, financialRecord.getNetTurnover());
-                } else {
-                    log.warn("No financial data found for CUI: {} and year: {}", cui, year);
+                    responses.add(bilantResponse);
+                } else if (!failures.containsKey(key.year())) {
+                    log.warn("No financial data found for CUI: {} and year: {}", cui, key.year());
+                }
+            }
+
+            Map<Integer, FinancialRecord> savedByYear = new HashMap<>();
+            try {
+                for (FinancialRecord financialRecord : databaseService.saveFinancialRecords(responses)) {
+                    savedByYear.put(financialRecord.getYear(), financialRecord);
+                    log.info("Saved financial data for year {} - Net Turnover: {}",
+                            financialRecord.getYear(), financialRecord.getNetTurnover());
                 }
-            } catch (Exception e) {
-                log.error("Error processing financial data for CUI: {} and year: {}", cui, year, e);
+            } catch (RuntimeException e) {
+                owned.forEach((key, claim) -> yearFlights.complete(key, claim, null, e));
+                throw e;
             }
+            // callers that joined a failed year see the failure too, not an empty year
+            owned.forEach((key, claim) -> yearFlights.complete(key, claim, savedByYear.get(key.year()),
+                    failures.get(key.year())));
+        });
+
+        joined.add(ownedYears);
+        return CompletableFuture.allOf(joined.toArray(new CompletableFuture[0]))
+                .thenRun(() -> throwIfYearsFailed(cui, failures));
+    }
+
+    private static void recordYearFailure(Map<Integer, Throwable> failures, String cui, int year, Throwable error) {
+        Throwable cause = AsyncResults.unwrap(error);
+        log.error("Could not fetch financial data for CUI: {} and year: {}", cui, year, cause);
+        failures.put(year, cause);
+    }
+
+    private static void throwIfYearsFailed(String cui, Map<Integer, Throwable> failures) {
+        if (!failures.isEmpty()) {
+            throw new CompletionException(new FinancialYearsException(cui, failures));
         }
+    }
 
-        return companyData;
+    /**
+     * One bilant request and one BILANT write per (cui, year) at a time.
+     */
+    private CompletableFuture<FinancialRecord> fetchAndSaveYear(String cui, int year) {
+        return yearFlights.execute(new YearKey(cui, year), () -> bilantService.checkBilantAsync(Integer.parseInt(cui), year)
+                .thenApply(bilantResponse -> {
+                    if (bilantResponse == null) {
+                        log.warn("No financial data found for CUI: {} and year: {}", cui, year);
+                        return null;
+                    }
+                    FinancialRecord financialRecord = databaseService.saveFinancialRecord(bilantResponse);
+                    log.info("Saved financial data for year {} - Net Turnover: {}",
+                            year, financialRecord.getNetTurnover());
+                    return financialRecord;
+                }));
     }
 
+    // only stored companies count as demand, so requests for unknown CUIs cannot fill the tracker
     public Optional<CompanyData> getCompanyFromDatabase(String cui) {
-        return databaseService.getCompanyByCui(cui);
+        Optional<CompanyData> companyData = databaseService.getCompanyByCui(cui);
+        companyData.ifPresent(company -> demandTracker.recordRequest(cui));
+        return companyData;
     }
 
 
     public List<FinancialRecord> getFinancialRecordsFromDatabase(String cui) {
-        return databaseService.getFinancialRecordsByCui(cui);
+        return recordDemand(cui, databaseService.getFinancialRecordsByCui(cui));
     }
 
     public List<FinancialRecord> getFinancialRecordsForPeriod(String cui, Integer startYear, Integer endYear) {
-        return databaseService.getFinancialRecordsByCuiAndYearRange(cui, startYear, endYear);
+        return recordDemand(cui, databaseService.getFinancialRecordsByCuiAndYearRange(cui, startYear, endYear));
+    }
+
+    public Optional<CompanyFullView> getCompanyFull(String cui, int startYear, int endYear) {
+        Optional<CompanyFullView> view = databaseService.getCompanyFull(cui, startYear, endYear);
+        view.ifPresent(company -> demandTracker.recordRequest(cui));
+        return view;
+    }
+
+    private List<FinancialRecord> recordDemand(String cui, List<FinancialRecord> records) {
+        if (!records.isEmpty()) {
+            demandTracker.recordRequest(cui);
+        }
+        return records;
+    }
+
+    public Optional<ContentVersion> getCompanyVersion(String cui) {
+        return databaseService.getCompanyVersion(cui);
+    }
+
+    public Optional<ContentVersion> getFinancialRecordsVersion(String cui) {
+        return databaseService.getFinancialRecordsVersion(cui);
+    }
+
+    public Optional<ContentVersion> getFinancialRecordsVersionForPeriod(String cui, Integer startYear, Integer endYear) {
+        return databaseService.getFinancialRecordsVersion(cui, startYear, endYear);
     }
 
     public CompanyData updateCompanyData(String cui) throws IOException, InterruptedException {
         log.info("Updating company data for CUI: {}", cui);
-        
-        AnafResponse anafResponse = anafService.checkAnaf(Integer.parseInt(cui));
-        if (anafResponse == null || anafResponse.getFound() == null || anafResponse.getFound().isEmpty()) {
+
+        CompanyData companyData = AsyncResults.await(fetchAndSaveCompany(cui));
+        if (companyData == null) {
             log.warn("No company found for CUI: {} during update", cui);
-            return null;
         }
-
-        return databaseService.saveCompanyData(anafResponse);
+        return companyData;
     }
 
     public FinancialRecord updateFinancialDataForYear(String cui, Integer year) throws IOException, InterruptedException {
         log.info("Updating financial data for CUI: {} and year: {}", cui, year);
-        
-        BilantResponse bilantResponse = bilantService.checkBilant(Integer.parseInt(cui), year);
-        if (bilantResponse == null) {
-            log.warn("No financial data found for CUI: {} and year: {}", cui, year);
-            return null;
+
+        Optional<FinancialRecord> storedRecord = databaseService.getFinancialRecordByCuiAndYear(cui, year);
+        if (storedRecord.isPresent() && canServeFromDatabase(year, storedRecord.get())) {
+            log.info("Serving closed year {} for CUI: {} from the database", year, cui);
+            return storedRecord.get();
         }
+        return AsyncResults.await(fetchAndSaveYear(cui, year));
+    }
+
+    public boolean markFinancialRecordStale(String cui, Integer year) {
+        return databaseService.markFinancialRecordStale(cui, year);
+    }
 
-        return databaseService.saveFinancialRecord(bilantResponse);
+    public Map<String, Long> getSingleFlightStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("companyFetches", companyFlights.getExecuted());
+        stats.put("companyShared", companyFlights.getShared());
+        stats.put("yearFetches", yearFlights.getExecuted());
+        stats.put("yearShared", yearFlights.getShared());
+        stats.put("inFlight", (long) (companyFlights.getInFlight() + yearFlights.getInFlight()));
+        return stats;
     }
 
     public int getCurrentFinancialYear() {
@@ -0,0 +1,204 @@
+package com.backend.service;
+
+import com.backend.model.entity.CompanyData;
+import com.backend.model.response.AnafResponse;
+import com.backend.model.response.FoundCompany;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-verifies stored companies against ANAF in the background so that reads can be answered
+ * from the database. Each run may use only a configured share of the ANAF TVA budget and
+ * skips entirely while interactive requests are waiting for a permit. Frequently requested
+ * companies are refreshed first, then the ones verified longest ago.
+ */
+@Service
+@Slf4j
+public class CompanyRefreshService {
+
+    private final AnafService anafService;
+    private final DatabaseService databaseService;
+    private final OutboundRateLimiter rateLimiter;
+    private final CompanyDemandTracker demandTracker;
+
+    private final boolean enabled;
+    private final double budgetShare;
+    private final Duration maxAge;
+    private final Duration hotMaxAge;
+    private final double intervalMinutes;
+
+    // fractional requests carried over between runs, so small shares still get a turn
+    private double budgetCarry;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong anafRequests = new AtomicLong();
+    private final AtomicLong companiesRefreshed = new AtomicLong();
+    private final AtomicLong companiesNotFound = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    public CompanyRefreshService(AnafService anafService,
+                                 DatabaseService databaseService,
+                                 OutboundRateLimiter rateLimiter,
+                                 CompanyDemandTracker demandTracker,
+                                 @Value("${app.refresh.enabled:true}") boolean enabled,
+                                 @Value("${app.refresh.budget-share:0.2}") double budgetShare,
+                                 @Value("${app.refresh.max-age-hours:24}") long maxAgeHours,
+                                 @Value("${app.refresh.hot-max-age-minutes:60}") long hotMaxAgeMinutes,
+                                 @Value("${app.refresh.interval-ms:60000}") long intervalMs) {
+        this.anafService = anafService;
+        this.databaseService = databaseService;
+        this.rateLimiter = rateLimiter;
+        this.demandTracker = demandTracker;
+        this.enabled = enabled;
+        this.budgetShare = Math.max(0, Math.min(budgetShare, 1));
+        this.maxAge = Duration.ofHours(maxAgeHours);
+        this.hotMaxAge = Duration.ofMinutes(hotMaxAgeMinutes);
+        this.intervalMinutes = intervalMs / 60_000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh.interval-ms:60000}", initialDelayString = "${app.refresh.initial-delay-ms:60000}")
+    public void refreshStaleCompanies() {
+        if (!enabled || budgetShare <= 0) {
+            return;
+        }
+        runs.incrementAndGet();
+        lastRunAt = LocalDateTime.now();
+
+        if (rateLimiter.getAvailableTokens(OutboundRateLimiter.ANAF_TVA) < 1) {
+            skippedRuns.incrementAndGet();
+            log.debug("Skipping background refresh, ANAF TVA budget is in use by interactive requests");
+            return;
+        }
+
+        budgetCarry = Math.min(budgetCarry + rateLimiter.getRequestsPerMinute(OutboundRateLimiter.ANAF_TVA)
+                * budgetShare * intervalMinutes, 10);
+        int requests = (int) budgetCarry;
+        if (requests < 1) {
+            return;
+        }
+
+        List<String> cuis = selectCompanies(requests * AnafService.MAX_BATCH_SIZE);
+        if (cuis.isEmpty()) {
+            budgetCarry = 0;
+            return;
+        }
+
+        int used = 0;
+        for (int from = 0; from < cuis.size(); from += AnafService.MAX_BATCH_SIZE) {
+            List<String> batch = cuis.subList(from, Math.min(from + AnafService.MAX_BATCH_SIZE, cuis.size()));
+            used++;
+            if (!refreshBatch(batch)) {
+                break;
+            }
+        }
+        budgetCarry -= used;
+    }
+
+    /**
+     * Most requested companies whose data is older than the hot max age come first, then the
+     * companies verified longest ago (never verified before anything else).
+     */
+    private List<String> selectCompanies(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> selected = new LinkedHashSet<>();
+
+        List<String> hot = demandTracker.mostRequested(limit);
+        Set<String> hotAndStale = new HashSet<>(databaseService.getCuisVerifiedBefore(hot, now.minus(hotMaxAge)));
+        for (String cui : hot) {
+            if (hotAndStale.contains(cui)) {
+                selected.add(cui);
+            }
+        }
+
+        if (selected.size() < limit) {
+            for (String cui : databaseService.getCuisVerifiedBefore(now.minus(maxAge), limit)) {
+                if (selected.size() >= limit) {
+                    break;
+                }
+                selected.add(cui);
+            }
+        }
+        return new ArrayList<>(selected);
+    }
+
+    private boolean refreshBatch(List<String> batch) {
+        Map<Integer, String> byNumber = new LinkedHashMap<>();
+        for (String cui : batch) {
+            try {
+                byNumber.put(Integer.valueOf(cui), cui);
+            } catch (NumberFormatException e) {
+                log.warn("Skipping stored company with invalid CUI: {}", cui);
+            }
+        }
+
+        AnafResponse response;
+        try {
+            anafRequests.incrementAndGet();
+            response = anafService.checkAnafBatch(byNumber.keySet());
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            log.warn("Background refresh of {} companies failed: {}", batch.size(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        List<FoundCompany> found = response.getFound() != null ? response.getFound() : List.of();
+        Set<String> refreshed = new HashSet<>();
+        try {
+            for (CompanyData companyData : databaseService.saveFoundCompanies(found)) {
+                refreshed.add(companyData.getCui());
+            }
+            List<String> notFound = new ArrayList<>();
+            for (String cui : batch) {
+                if (!refreshed.contains(cui)) {
+                    notFound.add(cui);
+                }
+            }
+            databaseService.markCompaniesVerified(notFound);
+            companiesNotFound.addAndGet(notFound.size());
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            log.error("Storing refreshed companies failed", e);
+            return false;
+        }
+
+        companiesRefreshed.addAndGet(refreshed.size());
+        demandTracker.clear(batch);
+        log.info("Background refresh verified {} companies ({} updated)", batch.size(), refreshed.size());
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("budgetShare", budgetShare);
+        stats.put("runs", runs.get());
+        stats.put("skippedRuns", skippedRuns.get());
+        stats.put("anafRequests", anafRequests.get());
+        stats.put("companiesRefreshed", companiesRefreshed.get());
+        stats.put("companiesNotFound", companiesNotFound.get());
+        stats.put("failures", failures.get());
+        stats.put("trackedCompanies", demandTracker.getTrackedCompanies());
+        stats.put("staleCompanies", databaseService.countCompaniesVerifiedBefore(LocalDateTime.now().minus(maxAge)));
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+}
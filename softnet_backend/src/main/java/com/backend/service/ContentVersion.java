@@ -0,0 +1,64 @@
+package com.backend.service;
+
+import com.backend.repository.ContentVersionView;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Strong entity tag and Last-Modified time of a representation built from one or more stored
+ * rows. The tag is derived from the content hashes kept on FIRMA and BILANT, so it can be
+ * computed without loading the entities.
+ */
+public final class ContentVersion {
+
+    private final String etag;
+    private final long lastModifiedMillis;
+
+    private ContentVersion(String etag, long lastModifiedMillis) {
+        this.etag = etag;
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    /**
+     * Combines the versions of all rows in a representation, in the order they are rendered.
+     * Empty when any row was written before content hashes existed; such responses are sent
+     * without validators until the row is stored again.
+     */
+    public static Optional<ContentVersion> of(List<? extends ContentVersionView> rows) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            LocalDateTime lastModified = null;
+            for (ContentVersionView row : rows) {
+                if (row.getContentHash() == null || row.getLastModified() == null) {
+                    return Optional.empty();
+                }
+                digest.update(row.getContentHash().getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) ',');
+                if (lastModified == null || row.getLastModified().isAfter(lastModified)) {
+                    lastModified = row.getLastModified();
+                }
+            }
+            String etag = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            long millis = lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+            return Optional.of(new ContentVersion(etag, millis));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /** -1 when the representation is empty (e.g. no financial records yet). */
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+}
@@ -0,0 +1,38 @@
+package com.backend.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * CUIs as users type them, in uploads and batch requests: the RO prefix of the VAT code and
+ * spaces are accepted and dropped.
+ */
+public final class Cuis {
+
+    private static final Pattern CUI_PATTERN = Pattern.compile("^(?:RO)?(\\d{2,10})$", Pattern.CASE_INSENSITIVE);
+
+    private Cuis() {
+    }
+
+    public static boolean isCui(String value) {
+        return value != null && CUI_PATTERN.matcher(value).matches();
+    }
+
+    /**
+     * The CUI as stored: digits only, without the RO prefix or leading zeros.
+     *
+     * @throws IllegalArgumentException if {@code cui} is not a CUI
+     */
+    public static String normalize(String cui) {
+        String value = cui == null ? "" : cui.replace(" ", "").trim();
+        Matcher matcher = CUI_PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid CUI: " + cui);
+        }
+        long number = Long.parseLong(matcher.group(1));
+        if (number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid CUI: " + cui);
+        }
+        return String.valueOf(number);
+    }
+}
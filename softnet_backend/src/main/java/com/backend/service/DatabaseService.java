@@ -4,22 +4,34 @@ import com.backend.model.entity.CompanyData;
 import com.backend.model.entity.FinancialRecord;
 import com.backend.model.response.AnafResponse;
 import com.backend.model.response.BilantResponse;
+import com.backend.model.response.CompanyFullView;
+import com.backend.model.response.FinancialYearView;
 import com.backend.model.response.FoundCompany;
 import com.backend.model.response.GeneralData;
-import com.backend.model.response.Indicator;
 import com.backend.repository.CompanyDataRepository;
+import com.backend.repository.CompanyFinancialRow;
+import com.backend.repository.ContentVersionView;
 import com.backend.repository.FinancialRecordRepository;
+import com.backend.repository.UpsertRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +40,8 @@ public class DatabaseService {
 
     private final CompanyDataRepository companyDataRepository;
     private final FinancialRecordRepository financialRecordRepository;
+    private final UpsertRepository upsertRepository;
+    private final EntityCache entityCache;
 
     @Transactional
     public CompanyData saveCompanyData(AnafResponse anafResponse) {
@@ -35,25 +49,33 @@ public class DatabaseService {
             return null;
         }
 
-        FoundCompany foundCompany = anafResponse.getFound().get(0);
-        GeneralData generalData = foundCompany.getDateGenerale();
-        if (generalData == null) {
+        return saveFoundCompany(anafResponse.getFound().get(0));
+    }
+
+    @Transactional
+    public CompanyData saveFoundCompany(FoundCompany foundCompany) {
+        CompanyData companyData = createCompanyDataFromFoundCompany(foundCompany);
+        if (companyData == null) {
             return null;
         }
-        
-        String cui = String.valueOf(generalData.getCui());
-
-        Optional<CompanyData> existingCompany = companyDataRepository.findByCui(cui);
+        entityCache.invalidateCompany(companyData.getCui());
+        return upsertRepository.upsertCompany(companyData);
+    }
 
-        CompanyData companyData;
-        if (existingCompany.isPresent()) {
-            companyData = existingCompany.get();
-            updateCompanyDataFromFoundCompany(companyData, foundCompany);
-        } else {
-            companyData = createCompanyDataFromFoundCompany(foundCompany);
+    /**
+     * Stores many companies with multi-row upserts; entries without general data are skipped.
+     */
+    @Transactional
+    public List<CompanyData> saveFoundCompanies(List<FoundCompany> foundCompanies) {
+        List<CompanyData> companies = new ArrayList<>(foundCompanies.size());
+        for (FoundCompany foundCompany : foundCompanies) {
+            CompanyData companyData = createCompanyDataFromFoundCompany(foundCompany);
+            if (companyData != null) {
+                companies.add(companyData);
+                entityCache.invalidateCompany(companyData.getCui());
+            }
         }
-
-        return companyDataRepository.save(companyData);
+        return companies.isEmpty() ? companies : upsertRepository.upsertCompanies(companies);
     }
 
     @Transactional
@@ -61,33 +83,241 @@ public class DatabaseService {
         if (bilantResponse == null) {
             return null;
         }
+        FinancialRecord financialRecord = createFinancialRecordFromBilantResponse(bilantResponse);
+        entityCache.invalidateFinancialRecord(financialRecord.getCui(), financialRecord.getYear());
+        return upsertRepository.upsertFinancialRecord(financialRecord);
+    }
 
-        String cui = String.valueOf(bilantResponse.getCui());
-        Integer year = bilantResponse.getAn();
-
-        Optional<FinancialRecord> existingRecord = financialRecordRepository.findByCuiAndYear(cui, year);
+    /**
+     * Stores several years of bilant data with a single multi-row upsert.
+     */
+    @Transactional
+    public List<FinancialRecord> saveFinancialRecords(List<BilantResponse> bilantResponses) {
+        List<FinancialRecord> financialRecords = new ArrayList<>(bilantResponses.size());
+        for (BilantResponse bilantResponse : bilantResponses) {
+            if (bilantResponse != null) {
+                FinancialRecord financialRecord = createFinancialRecordFromBilantResponse(bilantResponse);
+                entityCache.invalidateFinancialRecord(financialRecord.getCui(), financialRecord.getYear());
+                financialRecords.add(financialRecord);
+            }
+        }
+        return financialRecords.isEmpty() ? financialRecords : upsertRepository.upsertFinancialRecords(financialRecords);
+    }
 
-        FinancialRecord financialRecord;
-        if (existingRecord.isPresent()) {
-            financialRecord = existingRecord.get();
-            updateFinancialRecordFromBilantResponse(financialRecord, bilantResponse);
-        } else {
-            financialRecord = createFinancialRecordFromBilantResponse(bilantResponse);
+    /**
+     * Stores financial records that did not come from ANAF's web service (e.g. open-data
+     * files). Companies that are not stored yet get a placeholder row with only the CUI; the
+     * background refresh fills them in since they have never been verified. Returns the number
+     * of placeholder companies created.
+     */
+    @Transactional
+    public int saveImportedFinancialRecords(List<FinancialRecord> financialRecords) {
+        if (financialRecords.isEmpty()) {
+            return 0;
+        }
+        Set<String> cuis = new LinkedHashSet<>();
+        for (FinancialRecord financialRecord : financialRecords) {
+            cuis.add(financialRecord.getCui());
         }
+        // also drops the cached "not stored" answers of the placeholders created below
+        entityCache.invalidateFinancialRecords(cuis);
+        int created = upsertRepository.insertMissingCompanies(cuis);
+        upsertRepository.upsertFinancialRecords(financialRecords);
+        return created;
+    }
+
+    @Transactional
+    public boolean markFinancialRecordStale(String cui, Integer year) {
+        entityCache.invalidateFinancialRecord(cui, year);
+        return financialRecordRepository.markStale(cui, year) > 0;
+    }
+
+    /**
+     * Records that ANAF was asked about these companies but returned nothing new for them
+     * (e.g. they are no longer listed), so the refresher does not pick them again right away.
+     */
+    @Transactional
+    public int markCompaniesVerified(Collection<String> cuis) {
+        cuis.forEach(entityCache::invalidateCompany);
+        return cuis.isEmpty() ? 0 : companyDataRepository.markVerified(cuis, LocalDateTime.now());
+    }
 
-        return financialRecordRepository.save(financialRecord);
+    public List<String> getCuisVerifiedBefore(LocalDateTime before, int limit) {
+        return companyDataRepository.findCuisVerifiedBefore(before, PageRequest.of(0, limit));
     }
 
+    public List<String> getCuisVerifiedBefore(Collection<String> cuis, LocalDateTime before) {
+        return cuis.isEmpty() ? List.of() : companyDataRepository.findCuisVerifiedBefore(cuis, before);
+    }
+
+    public long countCompaniesVerifiedBefore(LocalDateTime before) {
+        return companyDataRepository.countVerifiedBefore(before);
+    }
+
+    /**
+     * Cached. The returned copy is detached and carries its financial records (newest first),
+     * so it can be serialized outside a persistence context. Placeholder rows are treated as
+     * unknown companies.
+     */
     public Optional<CompanyData> getCompanyByCui(String cui) {
-        return companyDataRepository.findByCui(cui);
+        Optional<CompanyData> cached = entityCache.getCompany(cui);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<CompanyData> companyData = companyDataRepository.findByCui(cui)
+                .filter(company -> !isPlaceholder(company.getCompanyName()))
+                .map(company -> company.toBuilder()
+                        .financialRecords(getFinancialRecordsByCui(cui))
+                        .build());
+        entityCache.putCompany(cui, companyData);
+        return companyData;
     }
 
     public List<FinancialRecord> getFinancialRecordsByCui(String cui) {
-        return financialRecordRepository.findByCuiOrderByYearDesc(cui);
+        List<FinancialRecord> cached = entityCache.getRecords(cui);
+        if (cached != null) {
+            return cached;
+        }
+        List<FinancialRecord> records = financialRecordRepository.findByCuiOrderByYearDesc(cui);
+        entityCache.putRecords(cui, records);
+        return records;
+    }
+
+    public Optional<FinancialRecord> getFinancialRecordByCuiAndYear(String cui, Integer year) {
+        return financialRecordRepository.findByCuiAndYear(cui, year);
     }
 
     public List<FinancialRecord> getFinancialRecordsByCuiAndYearRange(String cui, Integer startYear, Integer endYear) {
-        return financialRecordRepository.findByCuiAndYearRange(cui, startYear, endYear);
+        List<FinancialRecord> cached = entityCache.getRecords(cui, startYear, endYear);
+        if (cached != null) {
+            return cached;
+        }
+        List<FinancialRecord> records = financialRecordRepository.findByCuiAndYearRange(cui, startYear, endYear);
+        entityCache.putRecords(cui, startYear, endYear, records);
+        return records;
+    }
+
+    /**
+     * Company and financial records for a year range, read with one projection query instead
+     * of loading the entity graph.
+     */
+    public Optional<CompanyFullView> getCompanyFull(String cui, int startYear, int endYear) {
+        List<CompanyFinancialRow> rows = companyDataRepository.findCompanyWithFinancials(cui, startYear, endYear);
+        if (rows.isEmpty() || isPlaceholder(rows.get(0).getCompanyName())) {
+            return Optional.empty();
+        }
+        return Optional.of(toCompanyFullView(rows, startYear, endYear));
+    }
+
+    /**
+     * Reads the companies and their records in range with one streamed join in CUI order,
+     * handing each company to {@code sink} once its last row is read. Only the rows of one
+     * company are held at a time. CUIs that are not stored, or only as placeholders, are
+     * skipped.
+     */
+    @Transactional(readOnly = true)
+    public void streamCompanies(Collection<String> cuis, int startYear, int endYear, Consumer<CompanyFullView> sink) {
+        if (cuis.isEmpty()) {
+            return;
+        }
+
+        try (Stream<CompanyFinancialRow> rows = companyDataRepository.streamCompaniesWithFinancials(cuis, startYear, endYear)) {
+            List<CompanyFinancialRow> company = new ArrayList<>();
+            Iterator<CompanyFinancialRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CompanyFinancialRow row = iterator.next();
+                if (!company.isEmpty() && !company.get(0).getCui().equals(row.getCui())) {
+                    emitCompany(company, startYear, endYear, sink);
+                    company.clear();
+                }
+                company.add(row);
+            }
+            if (!company.isEmpty()) {
+                emitCompany(company, startYear, endYear, sink);
+            }
+        }
+    }
+
+    private static void emitCompany(List<CompanyFinancialRow> rows, int startYear, int endYear, Consumer<CompanyFullView> sink) {
+        if (!isPlaceholder(rows.get(0).getCompanyName())) {
+            sink.accept(toCompanyFullView(rows, startYear, endYear));
+        }
+    }
+
+    // rows of one company, newest year first; a company without records in range has one row without a year
+    private static CompanyFullView toCompanyFullView(List<CompanyFinancialRow> rows, int startYear, int endYear) {
+        List<FinancialYearView> financialRecords = new ArrayList<>(rows.size());
+        for (CompanyFinancialRow row : rows) {
+            if (row.getYear() != null) {
+                financialRecords.add(FinancialYearView.builder()
+                        .year(row.getYear())
+                        .netTurnover(row.getNetTurnover())
+                        .netProfit(row.getNetProfit())
+                        .totalExpenses(row.getTotalExpenses())
+                        .liabilities(row.getLiabilities())
+                        .totalCapital(row.getTotalCapital())
+                        .fixedAssets(row.getFixedAssets())
+                        .averageEmployees(row.getAverageEmployees())
+                        .build());
+            }
+        }
+
+        CompanyFinancialRow company = rows.get(0);
+        return CompanyFullView.builder()
+                .cui(company.getCui())
+                .companyName(company.getCompanyName())
+                .fiscalAddress(company.getFiscalAddress())
+                .tradeRegisterNo(company.getTradeRegisterNo())
+                .phone(company.getPhone())
+                .fax(company.getFax())
+                .postalCode(company.getPostalCode())
+                .registrationDate(company.getRegistrationDate())
+                .caenCode(company.getCaenCode())
+                .caenDescription(company.getCaenDescription())
+                .isVatPayer(company.getIsVatPayer())
+                .isInactive(company.getIsInactive())
+                .lastVerifiedAt(company.getLastVerifiedAt())
+                .startYear(startYear)
+                .endYear(endYear)
+                .financialRecords(financialRecords)
+                .build();
+    }
+
+    /**
+     * Version of the company as returned by {@link #getCompanyByCui}: the company row followed by
+     * its financial records. Empty when the company is unknown or has rows without a hash.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ContentVersion> getCompanyVersion(String cui) {
+        Optional<ContentVersionView> company = companyDataRepository.findVersionByCui(cui);
+        if (company.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ContentVersionView> rows = new ArrayList<>();
+        rows.add(company.get());
+        rows.addAll(financialRecordRepository.findVersionsByCui(cui));
+        return ContentVersion.of(rows);
+    }
+
+    public Optional<ContentVersion> getFinancialRecordsVersion(String cui) {
+        return ContentVersion.of(financialRecordRepository.findVersionsByCui(cui));
+    }
+
+    public Optional<ContentVersion> getFinancialRecordsVersion(String cui, Integer startYear, Integer endYear) {
+        return ContentVersion.of(financialRecordRepository.findVersionsByCuiAndYearRange(cui, startYear, endYear));
+    }
+
+    /**
+     * A row created by {@link #saveImportedFinancialRecords} that ANAF has not described yet.
+     * Only its CUI is known, so it must not be shown as a company. Checked on the name rather
+     * than last_verified_at, which is also set when ANAF does not list the CUI at all.
+     */
+    private static boolean isPlaceholder(String companyName) {
+        return companyName == null;
+    }
+
+    public Map<String, BoundedTtlCache.CacheStats> getCacheStats() {
+        return entityCache.getStats();
     }
 
     private CompanyData createCompanyDataFromFoundCompany(FoundCompany foundCompany) {
@@ -112,64 +342,9 @@ public class DatabaseService {
                 .build();
     }
 
-    private void updateCompanyDataFromFoundCompany(CompanyData companyData, FoundCompany foundCompany) {
-        GeneralData generalData = foundCompany.getDateGenerale();
-        if (generalData == null) {
-            return;
-        }
-        
-        companyData.setCompanyName(generalData.getDenumire());
-        companyData.setFiscalAddress(generalData.getAdresa());
-        companyData.setTradeRegisterNo(generalData.getNrRegCom());
-        companyData.setPhone(generalData.getTelefon());
-        companyData.setFax(generalData.getFax());
-        companyData.setPostalCode(generalData.getCodPostal());
-        companyData.setRegistrationDate(parseRegistrationDate(generalData.getDataInregistrare()));
-        companyData.setCaenCode(generalData.getCaen());
-        companyData.setCaenDescription(generalData.getDenumireCaen());
-        companyData.setIsVatPayer(foundCompany.getInregistrareScopTva() != null && foundCompany.getInregistrareScopTva().getScpTVA());
-        companyData.setIsInactive(foundCompany.getStareInactiv() != null && foundCompany.getStareInactiv().getStareInactiva());
-    }
-
     private FinancialRecord createFinancialRecordFromBilantResponse(BilantResponse bilantResponse) {
-        Map<String, Indicator> indicatorMap = bilantResponse.getIndicatori().stream()
-                .collect(Collectors.toMap(Indicator::getCodIndicator, i -> i));
-
-        return FinancialRecord.builder()
-                .cui(String.valueOf(bilantResponse.getCui()))
-                .year(bilantResponse.getAn())
-                .netTurnover(getIndicatorValue(indicatorMap, "I13"))
-                .netProfit(getIndicatorValue(indicatorMap, "I18"))
-                .totalExpenses(getIndicatorValue(indicatorMap, "I15"))
-                .liabilities(getIndicatorValue(indicatorMap, "I7"))
-                .totalCapital(getIndicatorValue(indicatorMap, "I10"))
-                .fixedAssets(getIndicatorValue(indicatorMap, "I1"))
-                .averageEmployees(getIndicatorValueAsInteger(indicatorMap, "I20"))
-                .build();
-    }
-
-    private void updateFinancialRecordFromBilantResponse(FinancialRecord financialRecord, BilantResponse bilantResponse) {
-        Map<String, Indicator> indicatorMap = bilantResponse.getIndicatori().stream()
-                .collect(Collectors.toMap(Indicator::getCodIndicator, i -> i));
-
-        financialRecord.setYear(bilantResponse.getAn());
-        financialRecord.setNetTurnover(getIndicatorValue(indicatorMap, "I13"));
-        financialRecord.setNetProfit(getIndicatorValue(indicatorMap, "I18"));
-        financialRecord.setTotalExpenses(getIndicatorValue(indicatorMap, "I15"));
-        financialRecord.setLiabilities(getIndicatorValue(indicatorMap, "I7"));
-        financialRecord.setTotalCapital(getIndicatorValue(indicatorMap, "I10"));
-        financialRecord.setFixedAssets(getIndicatorValue(indicatorMap, "I1"));
-        financialRecord.setAverageEmployees(getIndicatorValueAsInteger(indicatorMap, "I20"));
-    }
-
-    private Long getIndicatorValue(Map<String, Indicator> indicatorMap, String code) {
-        Indicator indicator = indicatorMap.get(code);
-        return indicator != null ? (long) indicator.getValoareIndicator() : 0L;
-    }
-
-    private Integer getIndicatorValueAsInteger(Map<String, Indicator> indicatorMap, String code) {
-        Indicator indicator = indicatorMap.get(code);
-        return indicator != null ? (int) indicator.getValoareIndicator() : 0;
+        return BilantIndicators.toFinancialRecord(String.valueOf(bilantResponse.getCui()), bilantResponse.getAn(),
+                BilantIndicators.extract(bilantResponse.getIndicatori()));
     }
 
     private LocalDate parseRegistrationDate(String dateString) {
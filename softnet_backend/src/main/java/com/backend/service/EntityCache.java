@@ -0,0 +1,120 @@
+package com.backend.service;
+
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache for the FIRMA and BILANT lookups served by {@link DatabaseService}.
+ * Companies are keyed by CUI (including "not stored" answers), financial records by CUI and
+ * by (cui, startYear, endYear). Cached instances are shared between callers and must not be
+ * modified. Writes invalidate the affected keys right away and once more after commit, so a
+ * read racing with the transaction cannot leave the old rows cached.
+ */
+@Component
+public class EntityCache {
+
+    private final BoundedTtlCache<String, Optional<CompanyData>> companies;
+    private final BoundedTtlCache<String, List<FinancialRecord>> recordsByCui;
+    private final BoundedTtlCache<RangeKey, List<FinancialRecord>> recordsByRange;
+
+    public EntityCache(@Value("${app.entity-cache.max-companies:5000}") int maxCompanies,
+                       @Value("${app.entity-cache.max-record-lists:10000}") int maxRecordLists,
+                       @Value("${app.entity-cache.ttl-minutes:10}") long ttlMinutes) {
+        Duration ttl = Duration.ofMinutes(ttlMinutes);
+        this.companies = new BoundedTtlCache<>(maxCompanies, ttl);
+        this.recordsByCui = new BoundedTtlCache<>(maxRecordLists, ttl);
+        this.recordsByRange = new BoundedTtlCache<>(maxRecordLists, ttl);
+    }
+
+    private record RangeKey(String cui, int startYear, int endYear) {
+    }
+
+    public Optional<CompanyData> getCompany(String cui) {
+        return companies.get(cui);
+    }
+
+    public void putCompany(String cui, Optional<CompanyData> companyData) {
+        companies.put(cui, companyData);
+    }
+
+    public List<FinancialRecord> getRecords(String cui) {
+        return recordsByCui.get(cui);
+    }
+
+    public void putRecords(String cui, List<FinancialRecord> records) {
+        recordsByCui.put(cui, List.copyOf(records));
+    }
+
+    public List<FinancialRecord> getRecords(String cui, int startYear, int endYear) {
+        return recordsByRange.get(new RangeKey(cui, startYear, endYear));
+    }
+
+    public void putRecords(String cui, int startYear, int endYear, List<FinancialRecord> records) {
+        recordsByRange.put(new RangeKey(cui, startYear, endYear), List.copyOf(records));
+    }
+
+    public void invalidateCompany(String cui) {
+        onWrite(() -> companies.invalidate(cui));
+    }
+
+    /**
+     * Drops the per-CUI list, every cached range containing {@code year} and the company
+     * (its cached copy carries the financial records).
+     */
+    public void invalidateFinancialRecord(String cui, int year) {
+        onWrite(() -> {
+            recordsByCui.invalidate(cui);
+            recordsByRange.invalidateIf(key -> key.cui().equals(cui) && key.startYear() <= year && year <= key.endYear());
+            companies.invalidate(cui);
+        });
+    }
+
+    /**
+     * Drops everything cached for these companies, with a single pass over the cached ranges.
+     * Meant for bulk writes, where invalidating record by record would scan the ranges once
+     * per row.
+     */
+    public void invalidateFinancialRecords(Collection<String> cuis) {
+        Set<String> distinct = new HashSet<>(cuis);
+        onWrite(() -> {
+            for (String cui : distinct) {
+                recordsByCui.invalidate(cui);
+                companies.invalidate(cui);
+            }
+            recordsByRange.invalidateIf(key -> distinct.contains(key.cui()));
+        });
+    }
+
+    public Map<String, BoundedTtlCache.CacheStats> getStats() {
+        Map<String, BoundedTtlCache.CacheStats> stats = new LinkedHashMap<>();
+        stats.put("companies", companies.stats());
+        stats.put("recordsByCui", recordsByCui.stats());
+        stats.put("recordsByRange", recordsByRange.stats());
+        return stats;
+    }
+
+    private static void onWrite(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.backend.service;
+
+import com.backend.repository.FinancialExportRow;
+import com.backend.repository.FinancialRecordRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports BILANT rows joined with FIRMA as CSV or newline-delimited JSON. Rows are read from a
+ * server-side cursor and written straight to the output, so memory use does not depend on the
+ * number of rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FinancialExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String CSV_HEADER = "cui,company_name,caen_code,year,net_turnover,net_profit,total_expenses,"
+            + "liabilities,total_capital,fixed_assets,average_employees";
+
+    private final FinancialRecordRepository financialRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes all matching rows and returns how many were written. Null filters are ignored.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, Integer startYear, Integer endYear, Integer caenCode, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long rows;
+        try (Stream<FinancialExportRow> stream = financialRecordRepository.streamForExport(startYear, endYear, caenCode)) {
+            rows = format == Format.CSV ? writeCsv(stream.iterator(), out) : writeNdjson(stream.iterator(), out);
+        }
+        log.info("Exported {} financial records as {} in {} ms", rows, format, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    private long writeCsv(Iterator<FinancialExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long count = 0;
+        while (rows.hasNext()) {
+            FinancialExportRow row = rows.next();
+            writer.write(row.getCui());
+            writer.write(',');
+            writeCsvText(writer, row.getCompanyName());
+            writeCsvValue(writer, row.getCaenCode());
+            writeCsvValue(writer, row.getYear());
+            writeCsvValue(writer, row.getNetTurnover());
+            writeCsvValue(writer, row.getNetProfit());
+            writeCsvValue(writer, row.getTotalExpenses());
+            writeCsvValue(writer, row.getLiabilities());
+            writeCsvValue(writer, row.getTotalCapital());
+            writeCsvValue(writer, row.getFixedAssets());
+            if (row.getAverageEmployees() != null) {
+                writer.write(row.getAverageEmployees().toString());
+            }
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<FinancialExportRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            while (rows.hasNext()) {
+                generator.writeObject(rows.next());
+                count++;
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    // quoted when it contains a separator, a quote or a line break; quotes are doubled
+    private static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value != null) {
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write(',');
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+        writer.write(',');
+    }
+}
@@ -0,0 +1,34 @@
+package com.backend.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown when some financial years of a company could not be fetched from ANAF, as opposed to
+ * ANAF having no statement for them. The years that did arrive are stored.
+ */
+public class FinancialYearsException extends IOException {
+
+    private final List<Integer> failedYears;
+    private final boolean upstreamUnavailable;
+
+    public FinancialYearsException(String cui, Map<Integer, Throwable> failures) {
+        super("Could not fetch financial years " + failures.keySet() + " for CUI " + cui + ": "
+                + failures.values().iterator().next().getMessage(), failures.values().iterator().next());
+        this.failedYears = List.copyOf(failures.keySet());
+        this.upstreamUnavailable = failures.values().stream()
+                .allMatch(cause -> cause instanceof CircuitOpenException || cause instanceof ThrottledException);
+    }
+
+    public List<Integer> getFailedYears() {
+        return failedYears;
+    }
+
+    /**
+     * True when no year failed on its own: ANAF was not asked (open circuit) or asked us to slow down.
+     */
+    public boolean isUpstreamUnavailable() {
+        return upstreamUnavailable;
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of a semaphore: callers over the limit are queued
+ * as futures instead of parking a thread.
+ */
+public class InFlightLimiter {
+
+    private final int maxInFlight;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int inFlight;
+
+    public InFlightLimiter(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public <T> CompletableFuture<T> run(Supplier<CompletableFuture<T>> task) {
+        return acquire().thenCompose(ignored -> {
+            CompletableFuture<T> result;
+            try {
+                result = task.get();
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return result.whenComplete((value, error) -> release());
+        });
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private synchronized CompletableFuture<Void> acquire() {
+        if (inFlight < maxInFlight) {
+            inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.addLast(waiter);
+        return waiter;
+    }
+
+    private void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiters.pollFirst();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // the permit is handed over directly, so inFlight stays unchanged
+        next.complete(null);
+    }
+}
@@ -0,0 +1,61 @@
+package com.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers CUIs that ANAF reported as not found and (cui, year) pairs without a published
+ * bilant, so repeated lookups for them do not cost an upstream round trip until the TTL expires.
+ */
+@Component
+public class NegativeResultCache {
+
+    private final BoundedTtlCache<Integer, Boolean> notFoundCuis;
+    private final BoundedTtlCache<String, Boolean> missingBilants;
+
+    public NegativeResultCache(@Value("${app.negative-cache.max-entries:10000}") int maxEntries,
+                               @Value("${app.negative-cache.cui-ttl-minutes:360}") long cuiTtlMinutes,
+                               @Value("${app.negative-cache.bilant-ttl-minutes:1440}") long bilantTtlMinutes) {
+        this.notFoundCuis = new BoundedTtlCache<>(maxEntries, Duration.ofMinutes(cuiTtlMinutes));
+        this.missingBilants = new BoundedTtlCache<>(maxEntries, Duration.ofMinutes(bilantTtlMinutes));
+    }
+
+    public boolean isCuiNotFound(int cui) {
+        return notFoundCuis.contains(cui);
+    }
+
+    public void recordCuiNotFound(int cui) {
+        notFoundCuis.put(cui, Boolean.TRUE);
+    }
+
+    public void recordCuiFound(int cui) {
+        notFoundCuis.invalidate(cui);
+    }
+
+    public boolean isBilantMissing(int cui, int year) {
+        return missingBilants.contains(bilantKey(cui, year));
+    }
+
+    public void recordBilantMissing(int cui, int year) {
+        missingBilants.put(bilantKey(cui, year), Boolean.TRUE);
+    }
+
+    public void recordBilantFound(int cui, int year) {
+        missingBilants.invalidate(bilantKey(cui, year));
+    }
+
+    public Map<String, BoundedTtlCache.CacheStats> getStats() {
+        Map<String, BoundedTtlCache.CacheStats> stats = new LinkedHashMap<>();
+        stats.put("notFoundCuis", notFoundCuis.stats());
+        stats.put("missingBilants", missingBilants.stats());
+        return stats;
+    }
+
+    private static String bilantKey(int cui, int year) {
+        return cui + ":" + year;
+    }
+}
@@ -0,0 +1,552 @@
+package com.backend.service;
+
+import com.backend.model.entity.FinancialRecord;
+import com.backend.model.response.OpenDataIngestionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads balance sheets from ANAF's open-data files (one delimited text file per year, a header
+ * row naming the columns, usually separated by '^') straight into BILANT, without calling the
+ * ANAF web service. The file is memory-mapped in chunks that are parsed in parallel; every
+ * chunk writes its rows with multi-row upserts. Only files inside app.open-data.directory can
+ * be read.
+ */
+@Service
+@Slf4j
+public class OpenDataIngestionService {
+
+    private static final Pattern YEAR_IN_NAME = Pattern.compile("(?:^|[^0-9])((?:19|20)[0-9]{2})(?![0-9])");
+    private static final byte[] DELIMITERS = {'^', ';', '\t', ','};
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    // a chunk's last line may run past the chunk end by at most this much
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+    // a field that is not a valid CUI or amount; the row is skipped
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private final DatabaseService databaseService;
+    private final Path directory;
+    private final int chunkBytes;
+    private final int parserThreads;
+    private final int batchSize;
+
+    // one file at a time; the parsers inside a run already use the configured threads
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "open-data-ingest");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Run current;
+
+    public OpenDataIngestionService(DatabaseService databaseService,
+                                    @Value("${app.open-data.directory:./open-data}") String directory,
+                                    @Value("${app.open-data.chunk-mb:32}") int chunkMb,
+                                    @Value("${app.open-data.parser-threads:0}") int parserThreads,
+                                    @Value("${app.open-data.batch-size:1000}") int batchSize) {
+        this.databaseService = databaseService;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.chunkBytes = Math.max(1, Math.min(chunkMb, 1024)) * 1024 * 1024;
+        this.parserThreads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Starts loading {@code fileName} (relative to the open-data directory) in the background.
+     * The financial year is taken from the file name when not given.
+     */
+    public synchronized OpenDataIngestionStatus start(String fileName, Integer year) throws IOException {
+        Path file = resolve(fileName);
+        int fiscalYear = year != null ? year : yearFromName(file.getFileName().toString());
+        if (current != null && current.state == OpenDataIngestionStatus.State.RUNNING) {
+            throw new IllegalStateException("An open-data ingestion is already running: " + current.file.getFileName());
+        }
+
+        Run run = new Run(file, fiscalYear, Files.size(file));
+        current = run;
+        runner.execute(() -> ingest(run));
+        log.info("Open-data ingestion of {} ({} bytes) for year {} queued", file, run.fileBytes, fiscalYear);
+        return run.snapshot();
+    }
+
+    public Optional<OpenDataIngestionStatus> getStatus() {
+        Run run = current;
+        return run == null ? Optional.empty() : Optional.of(run.snapshot());
+    }
+
+    private Path resolve(String fileName) throws IOException {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("No file given");
+        }
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such file in the open-data directory: " + fileName);
+        }
+        // symbolic links must not lead out of the directory either
+        Path realFile = file.toRealPath();
+        if (!realFile.startsWith(directory.toRealPath())) {
+            throw new IllegalArgumentException("No such file in the open-data directory: " + fileName);
+        }
+        return realFile;
+    }
+
+    private static int yearFromName(String fileName) {
+        Matcher matcher = YEAR_IN_NAME.matcher(fileName);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Cannot tell the financial year from " + fileName + ", pass it explicitly");
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private void ingest(Run run) {
+        AtomicInteger parserCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, runnable -> {
+            Thread thread = new Thread(runnable, "open-data-parser-" + parserCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(run.file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel);
+
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long start = header.dataOffset; start < size; start += chunkBytes) {
+                long chunkStart = start;
+                long chunkEnd = Math.min(size, start + chunkBytes);
+                chunks.add(parsers.submit(() -> {
+                    parseChunk(channel, header, chunkStart, chunkEnd, size, run);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+            run.finish(null);
+            log.info("Open-data ingestion of {} finished: {} rows stored, {} skipped, {} new companies, {} rows/s",
+                    run.file.getFileName(), run.rowsStored.get(), run.rowsSkipped.get(), run.companiesCreated.get(),
+                    Math.round(run.snapshot().getRowsPerSecond()));
+        } catch (ExecutionException e) {
+            run.finish(e.getCause());
+            log.error("Open-data ingestion of {} failed", run.file.getFileName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish(e);
+        } catch (IOException | RuntimeException e) {
+            run.finish(e);
+            log.error("Open-data ingestion of {} failed", run.file.getFileName(), e);
+        } finally {
+            parsers.shutdownNow();
+        }
+    }
+
+    private Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), MAX_HEADER_BYTES));
+        channel.read(buffer, 0);
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+
+        int end = 0;
+        while (end < length && bytes[end] != '\n') {
+            end++;
+        }
+        if (end == length && length == MAX_HEADER_BYTES) {
+            throw new IOException("Header line is longer than " + MAX_HEADER_BYTES + " bytes");
+        }
+
+        String line = new String(bytes, 0, end, StandardCharsets.UTF_8).replace("\uFEFF", "").trim();
+        byte delimiter = DELIMITERS[0];
+        for (byte candidate : DELIMITERS) {
+            if (line.indexOf(candidate) >= 0) {
+                delimiter = candidate;
+                break;
+            }
+        }
+
+        List<String> names = splitHeader(line, (char) delimiter);
+        int[] slots = new int[names.size()];
+        Arrays.fill(slots, BilantIndicators.NO_SLOT);
+        int cuiColumn = -1;
+        int lastUsedColumn = -1;
+        int indicatorColumns = 0;
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).replace("\"", "").trim().toUpperCase(Locale.ROOT);
+            if (name.equals("CUI")) {
+                cuiColumn = i;
+                lastUsedColumn = i;
+            } else {
+                slots[i] = BilantIndicators.slotOf(name);
+                if (slots[i] != BilantIndicators.NO_SLOT) {
+                    indicatorColumns++;
+                    lastUsedColumn = i;
+                }
+            }
+        }
+        if (cuiColumn < 0 || indicatorColumns == 0) {
+            throw new IOException("Header has no CUI column or none of the indicators I1, I7, I10, I13, I15, I18, I20: " + line);
+        }
+        return new Header(delimiter, cuiColumn, slots, lastUsedColumn + 1, end + 1);
+    }
+
+    // splits like parseLine does, so a quoted name containing the delimiter stays one column
+    private static List<String> splitHeader(String line, char delimiter) {
+        List<String> names = new ArrayList<>();
+        boolean quoted = false;
+        int fieldStart = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == delimiter && !quoted) {
+                names.add(line.substring(fieldStart, i));
+                fieldStart = i + 1;
+            }
+        }
+        names.add(line.substring(fieldStart));
+        return names;
+    }
+
+    /**
+     * Parses the lines that start in [start, end). The partial line at the start belongs to
+     * the previous chunk; the last line is read to its end even if that is past {@code end}.
+     */
+    private void parseChunk(FileChannel channel, Header header, long start, long end, long size, Run run) throws IOException {
+        // map one byte early to see whether the chunk starts at a line boundary
+        long mapStart = start > header.dataOffset ? start - 1 : start;
+        long mapEnd = Math.min(size, end + MAX_LINE_BYTES);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = buffer.limit();
+        int chunkEnd = (int) (end - mapStart);
+
+        int pos = 0;
+        if (mapStart < start) {
+            while (pos < limit && buffer.get(pos) != '\n') {
+                pos++;
+            }
+            pos++;
+        }
+
+        List<FinancialRecord> batch = new ArrayList<>(batchSize);
+        long[] values = new long[BilantIndicators.SLOT_COUNT];
+        while (pos < chunkEnd && pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && mapEnd < size) {
+                throw new IOException("Line at byte " + (mapStart + pos) + " is longer than " + MAX_LINE_BYTES + " bytes");
+            }
+
+            if (lineEnd > pos && !(lineEnd == pos + 1 && buffer.get(pos) == '\r')) {
+                run.rowsRead.incrementAndGet();
+                FinancialRecord financialRecord = parseLine(buffer, pos, lineEnd, header, values, run.year);
+                if (financialRecord == null) {
+                    run.rowsSkipped.incrementAndGet();
+                } else {
+                    batch.add(financialRecord);
+                    if (batch.size() >= batchSize) {
+                        store(batch, run);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        store(batch, run);
+    }
+
+    private static FinancialRecord parseLine(ByteBuffer buffer, int from, int to, Header header, long[] values, int year) {
+        Arrays.fill(values, 0);
+        long cui = INVALID;
+        int column = 0;
+        int fieldStart = from;
+        boolean quoted = false;
+        for (int i = from; i <= to && column < header.requiredColumns; i++) {
+            if (i < to) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    // "" inside a quoted field toggles twice, so it stays quoted
+                    quoted = !quoted;
+                }
+                if (quoted || b != header.delimiter) {
+                    continue;
+                }
+            }
+            if (column == header.cuiColumn) {
+                cui = parseCui(buffer, fieldStart, i);
+            } else if (header.slots[column] != BilantIndicators.NO_SLOT) {
+                long value = parseAmount(buffer, fieldStart, i);
+                if (value == INVALID) {
+                    return null;
+                }
+                values[header.slots[column]] = value;
+            }
+            column++;
+            fieldStart = i + 1;
+        }
+
+        if (column < header.requiredColumns || cui == INVALID) {
+            return null;
+        }
+        return BilantIndicators.toFinancialRecord(String.valueOf(cui), year, values);
+    }
+
+    // digits with an optional RO prefix and spaces, as accepted by Cuis
+    private static long parseCui(ByteBuffer buffer, int from, int to) {
+        long field = unquote(buffer, from, to);
+        if (field == INVALID) {
+            return INVALID;
+        }
+        int start = (int) (field >>> 32);
+        int end = (int) field;
+        if (end - start >= 2 && (buffer.get(start) | 0x20) == 'r' && (buffer.get(start + 1) | 0x20) == 'o') {
+            start += 2;
+        }
+        long cui = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                cui = cui * 10 + (b - '0');
+                if (++digits > 10) {
+                    return INVALID;
+                }
+            } else if (b != ' ') {
+                return INVALID;
+            }
+        }
+        return digits >= 2 && cui > 0 && cui <= Integer.MAX_VALUE ? cui : INVALID;
+    }
+
+    /**
+     * Whole lei from an amount such as 1234, -1.234.567, 1 234 567, 1,234.56 or 1.234,56.
+     * Decimals are rounded half up. A single '.' or ',' followed by exactly three digits is
+     * read as a thousands separator. Empty is 0; anything else is {@link #INVALID}.
+     */
+    private static long parseAmount(ByteBuffer buffer, int from, int to) {
+        long field = unquote(buffer, from, to);
+        if (field == INVALID) {
+            return INVALID;
+        }
+        int start = (int) (field >>> 32);
+        int end = (int) field;
+        if (start == end) {
+            return 0;
+        }
+        boolean negative = buffer.get(start) == '-';
+        if (negative) {
+            start++;
+        }
+
+        int dots = 0;
+        int commas = 0;
+        int lastDot = -1;
+        int lastComma = -1;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.') {
+                dots++;
+                lastDot = i;
+            } else if (b == ',') {
+                commas++;
+                lastComma = i;
+            } else if ((b < '0' || b > '9') && b != ' ' && b != '\'') {
+                return INVALID;
+            }
+        }
+
+        int decimal = -1;
+        if (dots > 0 && commas > 0) {
+            decimal = Math.max(lastDot, lastComma);
+            if ((decimal == lastDot ? dots : commas) > 1) {
+                return INVALID;
+            }
+        } else if (dots + commas == 1) {
+            int separator = Math.max(lastDot, lastComma);
+            boolean grouping = end - separator - 1 == 3 && separator - start <= 3 && buffer.get(start) != '0';
+            decimal = grouping ? -1 : separator;
+        }
+
+        int integerEnd = decimal >= 0 ? decimal : end;
+        long value = 0;
+        int digits = 0;
+        int groupDigits = 0;
+        boolean grouped = false;
+        for (int i = start; i < integerEnd; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (value > (Long.MAX_VALUE - 9) / 10) {
+                    return INVALID;
+                }
+                value = value * 10 + (b - '0');
+                digits++;
+                groupDigits++;
+            } else {
+                // thousands separator: 1-3 digits before the first one, exactly 3 between the others
+                if (groupDigits == 0 || groupDigits > 3 || grouped && groupDigits != 3) {
+                    return INVALID;
+                }
+                grouped = true;
+                groupDigits = 0;
+            }
+        }
+        if (digits == 0 || grouped && groupDigits != 3) {
+            return INVALID;
+        }
+
+        if (decimal >= 0) {
+            if (decimal + 1 == end) {
+                return INVALID;
+            }
+            for (int i = decimal + 1; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    return INVALID;
+                }
+            }
+            if (buffer.get(decimal + 1) >= '5') {
+                value++;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Trims blanks and one pair of surrounding quotes; returns the bounds packed as
+     * (start &lt;&lt; 32 | end), or {@link #INVALID} if a quote is left inside.
+     */
+    private static long unquote(ByteBuffer buffer, int from, int to) {
+        int start = trimStart(buffer, from, to);
+        int end = trimEnd(buffer, start, to);
+        if (end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"') {
+            start = trimStart(buffer, start + 1, end - 1);
+            end = trimEnd(buffer, start, end - 1);
+        }
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == '"') {
+                return INVALID;
+            }
+        }
+        return (long) start << 32 | end;
+    }
+
+    private static int trimStart(ByteBuffer buffer, int from, int to) {
+        while (from < to && isBlank(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && isBlank(buffer.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private void store(List<FinancialRecord> batch, Run run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int created = databaseService.saveImportedFinancialRecords(batch);
+        run.companiesCreated.addAndGet(created);
+        run.rowsStored.addAndGet(batch.size());
+    }
+
+    private static final class Header {
+        private final byte delimiter;
+        private final int cuiColumn;
+        private final int[] slots;
+        // columns after the last CUI / indicator column are not looked at
+        private final int requiredColumns;
+        private final long dataOffset;
+
+        Header(byte delimiter, int cuiColumn, int[] slots, int requiredColumns, long dataOffset) {
+            this.delimiter = delimiter;
+            this.cuiColumn = cuiColumn;
+            this.slots = slots;
+            this.requiredColumns = requiredColumns;
+            this.dataOffset = dataOffset;
+        }
+    }
+
+    private static final class Run {
+        private final Path file;
+        private final int year;
+        private final long fileBytes;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsStored = new AtomicLong();
+        private final AtomicLong rowsSkipped = new AtomicLong();
+        private final AtomicLong companiesCreated = new AtomicLong();
+        private volatile OpenDataIngestionStatus.State state = OpenDataIngestionStatus.State.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+        private volatile String error;
+
+        Run(Path file, int year, long fileBytes) {
+            this.file = file;
+            this.year = year;
+            this.fileBytes = fileBytes;
+        }
+
+        void finish(Throwable failure) {
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            if (failure != null) {
+                error = failure.getMessage();
+            }
+            state = failure == null ? OpenDataIngestionStatus.State.COMPLETED : OpenDataIngestionStatus.State.FAILED;
+        }
+
+        OpenDataIngestionStatus snapshot() {
+            long endNanos = state == OpenDataIngestionStatus.State.RUNNING ? System.nanoTime() : finishedNanos;
+            double seconds = Duration.ofNanos(endNanos - startedNanos).toMillis() / 1000d;
+            long stored = rowsStored.get();
+            return OpenDataIngestionStatus.builder()
+                    .file(file.getFileName().toString())
+                    .year(year)
+                    .state(state)
+                    .fileBytes(fileBytes)
+                    .rowsRead(rowsRead.get())
+                    .rowsStored(stored)
+                    .rowsSkipped(rowsSkipped.get())
+                    .companiesCreated(companiesCreated.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .elapsedSeconds(seconds)
+                    .rowsPerSecond(seconds > 0 ? stored / seconds : 0)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiter shared by every outgoing ANAF call. Each endpoint has its own
+ * budget and burst size (app.rate-limit.&lt;endpoint&gt;.*), falling back to
+ * app.rate-limit.requests-per-minute. Permits are handed out as delayed futures, so
+ * waiting callers do not hold a thread.
+ */
+@Component
+@Slf4j
+public class OutboundRateLimiter {
+
+    public static final String ANAF_TVA = "anaf-tva";
+    public static final String BILANT = "bilant";
+
+    private final Environment environment;
+    private final double defaultRequestsPerMinute;
+    private final Duration throttleRecovery;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public OutboundRateLimiter(Environment environment,
+                               @Value("${app.rate-limit.requests-per-minute:15}") double defaultRequestsPerMinute,
+                               @Value("${app.rate-limit.throttle-recovery-minutes:5}") long throttleRecoveryMinutes) {
+        this.environment = environment;
+        this.defaultRequestsPerMinute = defaultRequestsPerMinute;
+        this.throttleRecovery = Duration.ofMinutes(throttleRecoveryMinutes);
+    }
+
+    /**
+     * Completes when a request to the endpoint may be sent.
+     */
+    public CompletableFuture<Void> acquire(String endpoint) {
+        long waitNanos = bucket(endpoint).reserve(System.nanoTime());
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Takes a permit only if one is available right now; used for optional extra requests
+     * (hedges) that must never queue behind regular traffic.
+     */
+    public boolean tryAcquire(String endpoint) {
+        return bucket(endpoint).tryReserve(System.nanoTime());
+    }
+
+    /**
+     * Called when ANAF answers with HTTP 429/503: halves the endpoint rate and honours
+     * Retry-After. The configured rate is restored after app.rate-limit.throttle-recovery-minutes
+     * without further throttling.
+     */
+    public void onThrottled(String endpoint, Duration retryAfter) {
+        TokenBucket bucket = bucket(endpoint);
+        bucket.throttle(System.nanoTime(), retryAfter);
+        log.warn("ANAF throttled endpoint {} - rate lowered to {} requests/minute (retry after: {})",
+                endpoint, String.format("%.1f", bucket.currentRatePerMinute(System.nanoTime())), retryAfter);
+    }
+
+    /**
+     * Checks a response for throttling and feeds it back to the limiter.
+     */
+    public boolean isThrottled(String endpoint, HttpResponse<?> response) {
+        int status = response.statusCode();
+        if (status != 429 && status != 503) {
+            return false;
+        }
+        Duration retryAfter = response.headers().firstValue("Retry-After")
+                .map(OutboundRateLimiter::parseRetryAfter)
+                .orElse(null);
+        onThrottled(endpoint, retryAfter);
+        return true;
+    }
+
+    /**
+     * Current (possibly throttled) rate of the endpoint in requests per minute.
+     */
+    public double getRequestsPerMinute(String endpoint) {
+        return bucket(endpoint).currentRatePerMinute(System.nanoTime());
+    }
+
+    /**
+     * Tokens that can be taken right now without waiting; zero or negative while callers are queued.
+     */
+    public double getAvailableTokens(String endpoint) {
+        return bucket(endpoint).availableTokens(System.nanoTime());
+    }
+
+    /**
+     * Whether ANAF asked us (via Retry-After) to stop sending to this endpoint for now.
+     */
+    public boolean isPaused(String endpoint) {
+        return bucket(endpoint).isPaused(System.nanoTime());
+    }
+
+    public Map<String, BucketStats> getStats() {
+        Map<String, BucketStats> stats = new LinkedHashMap<>();
+        buckets.forEach((endpoint, bucket) -> stats.put(endpoint, bucket.stats(System.nanoTime())));
+        return stats;
+    }
+
+    private TokenBucket bucket(String endpoint) {
+        return buckets.computeIfAbsent(endpoint, this::createBucket);
+    }
+
+    private TokenBucket createBucket(String endpoint) {
+        double requestsPerMinute = environment.getProperty(
+                "app.rate-limit." + endpoint + ".requests-per-minute", Double.class, defaultRequestsPerMinute);
+        int burst = environment.getProperty("app.rate-limit." + endpoint + ".burst", Integer.class, 1);
+        log.info("Outbound rate limit for {}: {} requests/minute, burst {}", endpoint, requestsPerMinute, burst);
+        return new TokenBucket(requestsPerMinute, burst, throttleRecovery.toNanos());
+    }
+
+    private static Duration parseRetryAfter(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class TokenBucket {
+        private static final double NANOS_PER_MINUTE = 60_000_000_000d;
+
+        private final double configuredRate; // tokens per nanosecond
+        private final double minRate;
+        private final int capacity;
+        private final long recoveryNanos;
+
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos;
+        private long pausedUntilNanos;
+        private long lastThrottleNanos;
+        private boolean throttledRecently;
+
+        private long granted;
+        private long delayed;
+        private long totalWaitNanos;
+        private long throttleEvents;
+
+        TokenBucket(double requestsPerMinute, int burst, long recoveryNanos) {
+            this.configuredRate = Math.max(requestsPerMinute, 0.1) / NANOS_PER_MINUTE;
+            this.minRate = configuredRate / 8;
+            this.capacity = Math.max(1, burst);
+            this.recoveryNanos = recoveryNanos;
+            this.rate = configuredRate;
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+            this.pausedUntilNanos = lastRefillNanos;
+        }
+
+        synchronized long reserve(long now) {
+            refill(now);
+            // reservations may drive the balance negative; the deficit is the caller's wait
+            tokens -= 1;
+            long waitNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / rate);
+            waitNanos = Math.max(waitNanos, pausedUntilNanos - now);
+
+            granted++;
+            if (waitNanos > 0) {
+                delayed++;
+                totalWaitNanos += waitNanos;
+            }
+            return waitNanos;
+        }
+
+        synchronized boolean tryReserve(long now) {
+            refill(now);
+            if (now < pausedUntilNanos || tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            granted++;
+            return true;
+        }
+
+        synchronized void throttle(long now, Duration retryAfter) {
+            refill(now);
+            rate = Math.max(minRate, rate / 2);
+            tokens = Math.min(tokens, 0);
+            if (retryAfter != null) {
+                pausedUntilNanos = Math.max(pausedUntilNanos, now + retryAfter.toNanos());
+            }
+            lastThrottleNanos = now;
+            throttledRecently = true;
+            throttleEvents++;
+        }
+
+        synchronized double currentRatePerMinute(long now) {
+            refill(now);
+            return rate * NANOS_PER_MINUTE;
+        }
+
+        synchronized boolean isPaused(long now) {
+            return now < pausedUntilNanos;
+        }
+
+        synchronized double availableTokens(long now) {
+            refill(now);
+            return now < pausedUntilNanos ? Math.min(tokens, 0) : tokens;
+        }
+
+        synchronized BucketStats stats(long now) {
+            refill(now);
+            return new BucketStats(configuredRate * NANOS_PER_MINUTE, rate * NANOS_PER_MINUTE, capacity,
+                    tokens, granted, delayed, TimeUnit.NANOSECONDS.toMillis(totalWaitNanos), throttleEvents);
+        }
+
+        private void refill(long now) {
+            if (throttledRecently && now - lastThrottleNanos >= recoveryNanos) {
+                rate = configuredRate;
+                throttledRecently = false;
+            }
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * rate);
+                lastRefillNanos = now;
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BucketStats {
+        private final double configuredRequestsPerMinute;
+        private final double currentRequestsPerMinute;
+        private final int burst;
+        private final double availableTokens;
+        private final long granted;
+        private final long delayed;
+        private final long totalWaitMs;
+        private final long throttleEvents;
+    }
+}
@@ -0,0 +1,153 @@
+package com.backend.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.font.FontProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Fonts, stylesheet and converter settings shared by every report conversion. By default
+ * html2pdf builds a new font provider for each document and resolves the CSS font stack
+ * against it; here the report uses one embedded family, whose files are read once.
+ * A FontProvider caches the fonts of the document it is working on, so each thread gets its
+ * own provider and converter properties, reset before every conversion.
+ */
+@Component
+@Slf4j
+public class PdfConversionContext {
+
+    public static final String FONT_FAMILY = "Noto Sans";
+
+    // shipped with html2pdf; covers the Romanian diacritics the standard PDF fonts lack
+    private static final String FONT_DIRECTORY = "com/itextpdf/html2pdf/font/";
+    private static final String REGULAR_FONT = "NotoSans-Regular.ttf";
+    private static final String BOLD_FONT = "NotoSans-Bold.ttf";
+
+    public static final String REPORT_CSS = """
+            body {
+                font-family: "Noto Sans", sans-serif;
+                margin: 0 auto;
+                max-width: 800px;
+                padding: 20px;
+                color: #333;
+                font-size: 15px;
+                line-height: 1.6;
+            }
+            .header { text-align: center; border-bottom: 2px solid #e9ecef; padding-bottom: 20px; margin-bottom: 30px; position: relative; }
+            .header h1 { font-size: 28px; color: #2c3e50; margin-bottom: 5px; }
+            .header h2 { font-size: 20px; font-weight: normal; color: #7f8c8d; margin-top: 0; }
+            .watermark { position: absolute; top: 5px; right: 5px; color: #ced4da; font-size: 12px; font-weight: bold; }
+            .section { margin-bottom: 30px; }
+            .section-title { font-size: 20px; font-weight: bold; color: #2c3e50; border-bottom: 2px solid #3498db; padding-bottom: 10px; margin-bottom: 20px; }
+            .info-table { width: 100%; border-collapse: collapse; }
+            .info-table td { padding: 8px 0; vertical-align: top; }
+            .info-table .label { font-weight: bold; width: 200px; color: #555; }
+            .financial-table { width: 100%; border-collapse: collapse; margin-top: 15px; }
+            .financial-table th, .financial-table td { border-bottom: 1px solid #dee2e6; padding: 12px; text-align: left; }
+            .financial-table th { background-color: #f8f9fa; font-weight: bold; color: #34495e; border-bottom-width: 2px; }
+            .financial-table tr:last-child td { border-bottom: none; }
+            .text-right { text-align: right; }
+            """;
+
+    private final byte[] regularFont;
+    private final byte[] boldFont;
+    private final ThreadLocal<ThreadContext> contexts = ThreadLocal.withInitial(this::createThreadContext);
+
+    public PdfConversionContext() {
+        this.regularFont = readFont(REGULAR_FONT);
+        this.boldFont = readFont(BOLD_FONT);
+    }
+
+    private static final class ThreadContext {
+        private final FontProgram regular;
+        private final FontProgram bold;
+        private final FontProvider fontProvider;
+        private final ConverterProperties converterProperties;
+
+        private ThreadContext(FontProgram regular, FontProgram bold) {
+            this.regular = regular;
+            this.bold = bold;
+            this.fontProvider = new FontProvider(FONT_FAMILY);
+            fontProvider.addFont(regular, PdfEncodings.IDENTITY_H);
+            fontProvider.addFont(bold, PdfEncodings.IDENTITY_H);
+            this.converterProperties = new ConverterProperties().setFontProvider(fontProvider);
+        }
+    }
+
+    /**
+     * Converter properties for one conversion on the calling thread. They must not be kept
+     * or passed to another thread.
+     */
+    public ConverterProperties converterProperties() {
+        ThreadContext context = contexts.get();
+        // the fonts created for the previous document belong to that document
+        context.fontProvider.reset();
+        return context.converterProperties;
+    }
+
+    /**
+     * The report font for a document built on the calling thread with the layout API.
+     */
+    public PdfFont createFont(boolean bold) {
+        ThreadContext context = contexts.get();
+        return PdfFontFactory.createFont(bold ? context.bold : context.regular, PdfEncodings.IDENTITY_H,
+                PdfFontFactory.EmbeddingStrategy.PREFER_EMBEDDED);
+    }
+
+    /**
+     * Converts a small report once at startup, so class loading, html2pdf's default
+     * stylesheet and the font parsing are done before the first request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        String html = "<html><head><style>" + REPORT_CSS + "</style></head><body>"
+                + "<div class=\"header\"><h1>Company Report</h1><h2>Societate Comercială Ștefănești</h2></div>"
+                + "<table class=\"financial-table\"><tr><th>Year</th></tr><tr><td>1,234</td></tr></table>"
+                + "</body></html>";
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            HtmlConverter.convertToPdf(html, new PdfDocument(new PdfWriter(out)), converterProperties());
+            log.info("PDF conversion context ready in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("PDF conversion warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private ThreadContext createThreadContext() {
+        try {
+            // not taken from iText's font cache: a parsed font is read while subsetting and
+            // must not be shared between threads
+            return new ThreadContext(FontProgramFactory.createFont(regularFont, false),
+                    FontProgramFactory.createFont(boldFont, false));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load the report fonts", e);
+        }
+    }
+
+    private static byte[] readFont(String name) {
+        try (InputStream in = PdfConversionContext.class.getClassLoader().getResourceAsStream(FONT_DIRECTORY + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Report font not found: " + FONT_DIRECTORY + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read report font " + name, e);
+        }
+    }
+}
@@ -3,19 +3,31 @@ package com.backend.service;
 import com.backend.model.SecurePdfResult;
 import com.backend.model.entity.CompanyData;
 import com.backend.model.entity.FinancialRecord;
+import com.backend.repository.UpsertRepository;
 import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfDocumentInfo;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.SimpleTextExtractionStrategy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,9 +36,20 @@ import java.util.UUID;
 @Slf4j
 public class PdfGenerationService {
 
+    public static final String SIGNATURE_KEY = "report_Signature";
+    public static final String SIGNATURE_ALG_KEY = "Report-Signature-Alg";
+    public static final String CONTENT_HASH_KEY = "Report-Content-Text-Hash";
+    public static final String SIGNATURE_SCHEME_KEY = "Report-Signature-Scheme";
+    public static final String CANONICAL_CONTENT_KEY = "Report-Canonical-Content";
+    // reports without a scheme were signed over the text extracted from the PDF
+    public static final String CANONICAL_SCHEME = "canonical-v1";
+
     private final CompanyFinancialService companyService;
     private final PdfUtilService pdfUtilService;
     private final PdfStorageService storageService;
+    private final PdfRenderCache renderCache;
+    private final PdfConversionContext conversionContext;
+    private final PdfLayoutRenderer layoutRenderer;
 
     @Value("${app.pdf.version:1.0}")
     private String pdfVersion;
@@ -34,12 +57,50 @@ public class PdfGenerationService {
     @Value("${app.pdf.watermark.text:}")
     private String watermarkText;
 
+    // the report shows when the data last changed instead of the render time and carries no
+    // request id, so the same data always gives the same signed content and can be cached
+    @Value("${app.pdf.deterministic:true}")
+    private boolean deterministic;
+
+    private ReportEngine defaultEngine;
+
+    /**
+     * HTML renders the report template through html2pdf. LAYOUT builds the same report directly
+     * with the iText layout API, skipping HTML parsing and the CSS cascade.
+     */
+    public enum ReportEngine {
+        HTML, LAYOUT;
+
+        public static ReportEngine parse(String name) {
+            for (ReportEngine engine : values()) {
+                if (engine.name().equalsIgnoreCase(name.trim())) {
+                    return engine;
+                }
+            }
+            throw new IllegalArgumentException("Unknown PDF engine: " + name);
+        }
+    }
+
+    // parsed once, so an unknown engine stops the application at startup instead of every report
+    @Value("${app.pdf.engine:html}")
+    void setDefaultEngine(String engine) {
+        this.defaultEngine = ReportEngine.parse(engine);
+    }
+
     public SecurePdfResult generateSecurePdf(CompanyData company, String cui, int years) throws IOException {
+        return generateSecurePdf(company, cui, years, null);
+    }
+
+    /**
+     * @param engine how the report is laid out; null uses app.pdf.engine
+     */
+    public SecurePdfResult generateSecurePdf(CompanyData company, String cui, int years, ReportEngine engine) throws IOException {
         String requestId = UUID.randomUUID().toString();
-        LocalDateTime timestamp = LocalDateTime.now();
+        ReportEngine reportEngine = engine != null ? engine : defaultEngine;
 
         try {
-            log.info("Starting secure PDF generation for CUI: {} with {} years [RequestID: {}]", cui, years, requestId);
+            log.info("Starting secure PDF generation for CUI: {} with {} years, {} engine [RequestID: {}]",
+                    cui, years, reportEngine, requestId);
 
             CompanyData validatedCompany = validateAndNormalizeCompanyData(company, cui);
             java.time.LocalDate now = java.time.LocalDate.now();
@@ -59,9 +120,22 @@ public class PdfGenerationService {
             log.info("PDF generation for CUI: {} - Years: {} to {} (requested {} years)", cui, startYear, endYear, years);
             List<FinancialRecord> records = companyService.getFinancialRecordsForPeriod(cui, startYear, endYear);
 
-            String htmlContent = generateDeterministicHtml(validatedCompany, records, timestamp, requestId, cui);
+            LocalDateTime timestamp = deterministic ? dataTimestamp(validatedCompany, records) : LocalDateTime.now();
+            String cacheKey = deterministic && renderCache.isEnabled()
+                    ? renderKey(validatedCompany, records, startYear, endYear, timestamp, reportEngine)
+                    : null;
+            if (cacheKey != null) {
+                SecurePdfResult cached = renderCache.get(cacheKey);
+                if (cached != null) {
+                    log.info("PDF for CUI: {} served from the render cache [RequestID: {}, Checksum: {}]",
+                            cui, requestId, cached.getChecksum());
+                    return cached;
+                }
+            }
 
-            byte[] pdfBytes = createSecurePdfFromHtmlWithSignature(htmlContent);
+            String shownRequestId = deterministic ? null : requestId;
+            ReportContent content = buildReportContent(validatedCompany, records, timestamp, shownRequestId);
+            byte[] pdfBytes = createSecurePdfWithSignature(content, reportEngine, timestamp, shownRequestId);
             String checksum = calculateSHA256(pdfBytes);
 
             String fileName = generateFileName(cui, timestamp, pdfVersion, checksum);
@@ -69,7 +143,11 @@ public class PdfGenerationService {
             log.info("PDF generated successfully for CUI: {} [RequestID: {}, Size: {} bytes, Checksum: {}]",
                     cui, requestId, pdfBytes.length, checksum);
 
-            return new SecurePdfResult(pdfBytes, fileName, checksum, pdfBytes.length, timestamp, pdfVersion);
+            SecurePdfResult result = new SecurePdfResult(pdfBytes, fileName, checksum, pdfBytes.length, timestamp, pdfVersion);
+            if (cacheKey != null) {
+                renderCache.put(cacheKey, result);
+            }
+            return result;
 
         } catch (Exception e) {
             log.error("Error generating PDF for CUI: {} [RequestID: {}]", cui, requestId, e);
@@ -81,18 +159,62 @@ public class PdfGenerationService {
         if (!company.getCui().equals(cui)) {
             throw new IllegalArgumentException("CUI mismatch in company data");
         }
-        if (company.getPhone() != null) {
-            company.setPhone(normalizePhoneNumber(company.getPhone()));
+        // normalize a copy, the instance passed in may be shared through the entity cache
+        CompanyData normalized = company.toBuilder().build();
+        if (normalized.getPhone() != null) {
+            normalized.setPhone(normalizePhoneNumber(normalized.getPhone()));
         }
-        if (company.getFiscalAddress() != null) {
-            company.setFiscalAddress(company.getFiscalAddress().trim().toUpperCase());
+        if (normalized.getFiscalAddress() != null) {
+            normalized.setFiscalAddress(normalized.getFiscalAddress().trim().toUpperCase());
         }
-        validateBusinessRules(company);
-        return company;
+        validateBusinessRules(normalized);
+        return normalized;
     }
 
-    private String generateDeterministicHtml(CompanyData company, List<FinancialRecord> records,
-                                             LocalDateTime timestamp, String requestId, String cui) {
+    /**
+     * Collects the formatted values of the report. Rows without a value are left out, as
+     * they are in the rendered report.
+     */
+    private ReportContent buildReportContent(CompanyData company, List<FinancialRecord> records,
+                                             LocalDateTime timestamp, String requestId) {
+        List<ReportContent.InfoRow> infoRows = new ArrayList<>();
+        addInfoRow(infoRows, "Company Name:", company.getCompanyName());
+        addInfoRow(infoRows, "Unique Tax ID (CUI):", company.getCui());
+        addInfoRow(infoRows, "Registered Address:", company.getFiscalAddress());
+        addInfoRow(infoRows, "Trade Register No.:", company.getTradeRegisterNo());
+        addInfoRow(infoRows, "Phone:", company.getPhone());
+        addInfoRow(infoRows, "Fax:", company.getFax());
+        addInfoRow(infoRows, "Postal Code:", company.getPostalCode());
+        addInfoRow(infoRows, "Inactive Status:", (company.getIsInactive() != null && company.getIsInactive()) ? "YES" : "NO");
+        addInfoRow(infoRows, "VAT Payer:", (company.getIsVatPayer() != null && company.getIsVatPayer()) ? "YES" : "NO");
+        if (company.getCaenDescription() != null) {
+            addInfoRow(infoRows, "Primary Activity (CAEN):", company.getCaenDescription());
+        }
+
+        List<ReportContent.FinancialRow> financialRows = records == null ? List.of() : records.stream()
+                .sorted((r1, r2) -> Integer.compare(r2.getYear(), r1.getYear()))
+                .map(record -> new ReportContent.FinancialRow(
+                        record.getYear(),
+                        formatCurrency(record.getNetTurnover()),
+                        formatCurrency(record.getNetProfit()),
+                        formatCurrency(record.getTotalExpenses()),
+                        formatCurrency(record.getLiabilities()),
+                        formatCurrency(record.getTotalCapital()),
+                        formatCurrency(record.getFixedAssets()),
+                        record.getAverageEmployees() != null ? record.getAverageEmployees().toString() : "N/A"))
+                .toList();
+
+        return new ReportContent(
+                watermarkText,
+                company.getCompanyName() != null ? company.getCompanyName() : "N/A",
+                company.getCui(),
+                requestId != null ? "Generated" : "Data as of",
+                timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                infoRows,
+                financialRows);
+    }
+
+    private String generateDeterministicHtml(ReportContent content, LocalDateTime timestamp, String requestId) {
         StringBuilder html = new StringBuilder();
 
         html.append(String.format("""
@@ -103,115 +225,64 @@ public class PdfGenerationService {
                 <title>Company Report - %s</title>
                 <meta name="version" content="%s">
                 <meta name="timestamp" content="%s">
-                <meta name="request-id" content="%s">
-                <style>
-                    body {
-                        font-family: -apple-system, BlinkMacSystemFont, "Segoe UI", Roboto, Helvetica, Arial, sans-serif, "Apple Color Emoji", "Segoe UI Emoji";
-                        margin: 0 auto;
-                        max-width: 800px;
-                        padding: 20px;
-                        color: #333;
-                        font-size: 15px;
-                        line-height: 1.6;
-                    }
-                    .header { text-align: center; border-bottom: 2px solid #e9ecef; padding-bottom: 20px; margin-bottom: 30px; position: relative; }
-                    .header h1 { font-size: 28px; color: #2c3e50; margin-bottom: 5px; }
-                    .header h2 { font-size: 20px; font-weight: normal; color: #7f8c8d; margin-top: 0; }
-                    .watermark { position: absolute; top: 5px; right: 5px; color: #ced4da; font-size: 12px; font-weight: bold; }
-                    .section { margin-bottom: 30px; }
-                    .section-title { font-size: 20px; font-weight: bold; color: #2c3e50; border-bottom: 2px solid #3498db; padding-bottom: 10px; margin-bottom: 20px; }
-                    .info-table { width: 100%%; border-collapse: collapse; }
-                    .info-table td { padding: 8px 0; vertical-align: top; }
-                    .info-table .label { font-weight: bold; width: 200px; color: #555; }
-                    .financial-table { width: 100%%; border-collapse: collapse; margin-top: 15px; }
-                    .financial-table th, .financial-table td { border-bottom: 1px solid #dee2e6; padding: 12px; text-align: left; }
-                    .financial-table th { background-color: #f8f9fa; font-weight: bold; color: #34495e; border-bottom-width: 2px; }
-                    .financial-table tr:last-child td { border-bottom: none; }
-                    .text-right { text-align: right; }
-                </style>
+                %s
+                <style>%s</style>
             </head>
             <body>
-            """, company.getCui(), pdfVersion, timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), requestId));
+            """, content.cui(), pdfVersion, timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                requestId != null ? "<meta name=\"request-id\" content=\"" + requestId + "\">" : "",
+                PdfConversionContext.REPORT_CSS));
 
         html.append(String.format("""
             <div class="header">
                 <div class="watermark">%s</div>
-                <h1>Company Report</h1>
+                <h1>%s</h1>
                 <h2>%s</h2>
-                <p>CUI: %s | Generated: %s</p>
+                <p>%s</p>
             </div>
-            """, watermarkText,
-                company.getCompanyName() != null ? company.getCompanyName() : "N/A",
-                company.getCui(),
-                timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
+            """, HtmlUtils.htmlEscape(content.watermark() != null ? content.watermark() : ""),
+                ReportContent.TITLE,
+                HtmlUtils.htmlEscape(content.companyName()),
+                HtmlUtils.htmlEscape(content.headerLine())));
 
-        html.append("""
+        html.append(String.format("""
             <div class="section">
-                <h3 class="section-title">General Information</h3>
+                <h3 class="section-title">%s</h3>
                 <table class="info-table">
-            """);
-
-        addInfoRow(html, "Company Name:", company.getCompanyName());
-        addInfoRow(html, "Unique Tax ID (CUI):", company.getCui());
-        addInfoRow(html, "Registered Address:", company.getFiscalAddress());
-        addInfoRow(html, "Trade Register No.:", company.getTradeRegisterNo());
-        addInfoRow(html, "Phone:", company.getPhone());
-        addInfoRow(html, "Fax:", company.getFax());
-        addInfoRow(html, "Postal Code:", company.getPostalCode());
-        addInfoRow(html, "Inactive Status:", (company.getIsInactive() != null && company.getIsInactive()) ? "YES" : "NO");
-        addInfoRow(html, "VAT Payer:", (company.getIsVatPayer() != null && company.getIsVatPayer()) ? "YES" : "NO");
-
-        if (company.getCaenDescription() != null) {
-            addInfoRow(html, "Primary Activity (CAEN):", company.getCaenDescription());
+            """, ReportContent.GENERAL_SECTION));
+        for (ReportContent.InfoRow row : content.infoRows()) {
+            html.append("<tr><td class=\"label\">")
+                    .append(row.label())
+                    .append("</td><td>")
+                    .append(HtmlUtils.htmlEscape(row.value()))
+                    .append("</td></tr>");
         }
-
         html.append("</table></div>");
 
-        if (records != null && !records.isEmpty()) {
+        if (!content.financialRows().isEmpty()) {
+            // the header row sits in tbody so html2pdf does not repeat it on a page break,
+            // which would add text the signed content does not have
             html.append(String.format("""
                 <div class="section">
-                    <h3 class="section-title">Financial Data (Last %d Years)</h3>
+                    <h3 class="section-title">%s</h3>
                     <table class="financial-table">
-                        <thead>
-                            <tr>
-                                <th>Year</th>
-                                <th class="text-right">Net Turnover (RON)</th>
-                                <th class="text-right">Net Profit (RON)</th>
-                                <th class="text-right">Total Expenses (RON)</th>
-                                <th class="text-right">Total Liabilities (RON)</th>
-                                <th class="text-right">Total Capital (RON)</th>
-                                <th class="text-right">Fixed Assets (RON)</th>
-                                <th class="text-right">Avg. Employees</th>
-                            </tr>
-                        </thead>
                         <tbody>
-                """, records.size()));
-
-            records.stream()
-                    .sorted((r1, r2) -> Integer.compare(r2.getYear(), r1.getYear()))
-                    .forEach(record -> {
-                        html.append(String.format("""
                             <tr>
-                                <td><strong>%d</strong></td>
-                                <td class="text-right">%s</td>
-                                <td class="text-right">%s</td>
-                                <td class="text-right">%s</td>
-                                <td class="text-right">%s</td>
-                                <td class="text-right">%s</td>
-                                <td class="text-right">%s</td>
-                                <td class="text-right">%s</td>
-                            </tr>
-                            """,
-                                record.getYear(),
-                                formatCurrency(record.getNetTurnover()),
-                                formatCurrency(record.getNetProfit()),
-                                formatCurrency(record.getTotalExpenses()),
-                                formatCurrency(record.getLiabilities()),
-                                formatCurrency(record.getTotalCapital()),
-                                formatCurrency(record.getFixedAssets()),
-                                record.getAverageEmployees() != null ? record.getAverageEmployees().toString() : "N/A"
-                        ));
-                    });
+                """, content.financialSection()));
+            for (int i = 0; i < ReportContent.FINANCIAL_HEADERS.size(); i++) {
+                html.append(i == 0 ? "<th>" : "<th class=\"text-right\">")
+                        .append(ReportContent.FINANCIAL_HEADERS.get(i))
+                        .append("</th>");
+            }
+            html.append("</tr>");
+
+            for (ReportContent.FinancialRow row : content.financialRows()) {
+                html.append("<tr><td><strong>").append(row.year()).append("</strong></td>");
+                for (String amount : row.amounts()) {
+                    html.append("<td class=\"text-right\">").append(amount).append("</td>");
+                }
+                html.append("</tr>");
+            }
 
             html.append("""
                         </tbody>
@@ -220,73 +291,129 @@ public class PdfGenerationService {
                 """);
         }
 
-
+        html.append("</body></html>");
         return html.toString();
     }
 
-    private byte[] createSecurePdfFromHtmlWithSignature(String htmlContent) throws IOException {
-        ByteArrayOutputStream initialOut = new ByteArrayOutputStream();
-        HtmlConverter.convertToPdf(htmlContent, initialOut);
-        byte[] initialPdf = initialOut.toByteArray();
-
-        StringBuilder textBuilder = new StringBuilder();
-        com.itextpdf.kernel.pdf.PdfDocument readDoc = null;
-        try {
-            readDoc = new com.itextpdf.kernel.pdf.PdfDocument(
-                    new com.itextpdf.kernel.pdf.PdfReader(new java.io.ByteArrayInputStream(initialPdf))
-            );
-            int pages = readDoc.getNumberOfPages();
-            for (int i = 1; i <= pages; i++) {
-                String pageText = com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor.getTextFromPage(readDoc.getPage(i));
-                if (pageText != null) {
-                    textBuilder.append(pageText).append('\n');
+    /**
+     * Latest change of the company or its records, to the second. Rows stored before change
+     * tracking fall back to when they were verified or inserted.
+     */
+    private LocalDateTime dataTimestamp(CompanyData company, List<FinancialRecord> records) {
+        LocalDateTime latest = firstNonNull(company.getLastModified(), company.getLastVerifiedAt(), company.getInsertTimestamp());
+        if (records != null) {
+            for (FinancialRecord record : records) {
+                LocalDateTime changed = firstNonNull(record.getLastModified(), record.getInsertTimestamp());
+                if (changed != null && (latest == null || changed.isAfter(latest))) {
+                    latest = changed;
                 }
             }
-        } finally {
-            if (readDoc != null) {
-                readDoc.close();
+        }
+        return latest != null ? latest.truncatedTo(ChronoUnit.SECONDS) : LocalDate.now().atStartOfDay();
+    }
+
+    private static LocalDateTime firstNonNull(LocalDateTime... values) {
+        for (LocalDateTime value : values) {
+            if (value != null) {
+                return value;
             }
         }
-        String extractedText = textBuilder.toString();
+        return null;
+    }
 
-        System.out.println(extractedText);
-        String textHash = pdfUtilService.calculateChecksum(extractedText.getBytes(StandardCharsets.UTF_8));
+    // everything that ends up in the rendered report, including the key it is signed with
+    private String renderKey(CompanyData company, List<FinancialRecord> records, int startYear, int endYear,
+                             LocalDateTime timestamp, ReportEngine engine) {
+        StringBuilder key = new StringBuilder()
+                .append(storageService.signingKeyFingerprint()).append('|')
+                .append(pdfVersion).append('|')
+                .append(engine).append('|')
+                .append(watermarkText).append('|')
+                .append(startYear).append('-').append(endYear).append('|')
+                .append(timestamp).append('|')
+                .append(UpsertRepository.companyHash(company));
+        if (records != null) {
+            records.stream()
+                    .sorted(Comparator.comparing(FinancialRecord::getYear).reversed())
+                    .forEach(record -> key.append('|').append(UpsertRepository.financialHash(record)));
+        }
+        return calculateSHA256(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Renders the report once, with the signature already in the document info. The HMAC covers
+     * the canonical content built from the rendered model values rather than text extracted from
+     * the finished PDF, so the document does not have to be read back and stamped again. The
+     * canonical content is embedded (Base64) so /verify can check the HMAC and that the page
+     * text is exactly the text it renders to.
+     */
+    private byte[] createSecurePdfWithSignature(ReportContent content, ReportEngine engine,
+                                                LocalDateTime timestamp, String requestId) throws IOException {
+        byte[] canonicalBytes = content.canonical(CANONICAL_SCHEME, pdfVersion).getBytes(StandardCharsets.UTF_8);
+        String contentHash = pdfUtilService.calculateChecksum(canonicalBytes);
         String signature;
         try {
-            signature = storageService.generateSignature(extractedText.getBytes(StandardCharsets.UTF_8));
+            signature = storageService.generateSignature(canonicalBytes);
         } catch (Exception e) {
             throw new IOException("Failed to sign PDF content", e);
         }
-        ByteArrayOutputStream stampedOut = new ByteArrayOutputStream();
-        com.itextpdf.kernel.pdf.PdfDocument stampDoc = null;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(out));
+        PdfDocumentInfo info = pdfDocument.getDocumentInfo();
+        info.setMoreInfo(SIGNATURE_KEY, signature);
+        info.setMoreInfo(SIGNATURE_ALG_KEY, "HMAC-SHA256");
+        info.setMoreInfo(CONTENT_HASH_KEY, contentHash);
+        info.setMoreInfo(SIGNATURE_SCHEME_KEY, CANONICAL_SCHEME);
+        info.setMoreInfo(CANONICAL_CONTENT_KEY, Base64.getEncoder().encodeToString(canonicalBytes));
+        info.setCreator("Report API");
+        info.setTitle("Company Report");
+
+        // both close the document
+        if (engine == ReportEngine.LAYOUT) {
+            layoutRenderer.render(content, pdfDocument);
+        } else {
+            HtmlConverter.convertToPdf(generateDeterministicHtml(content, timestamp, requestId), pdfDocument,
+                    conversionContext.converterProperties());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * True when the page text is exactly the text the signed canonical content renders to, in
+     * order and with nothing added. Whitespace is ignored, since line wrapping and extraction
+     * may add or drop it. {@code extractedText} must come from {@link #extractDrawnText}.
+     */
+    public boolean matchesCanonicalContent(String canonicalContent, String extractedText) {
+        String expected;
         try {
-            stampDoc = new com.itextpdf.kernel.pdf.PdfDocument(
-                    new com.itextpdf.kernel.pdf.PdfReader(new java.io.ByteArrayInputStream(initialPdf)),
-                    new com.itextpdf.kernel.pdf.PdfWriter(stampedOut),
-                    new com.itextpdf.kernel.pdf.StampingProperties().useAppendMode()
-            );
-            com.itextpdf.kernel.pdf.PdfDocumentInfo info = stampDoc.getDocumentInfo();
-            info.setMoreInfo("report_Signature", signature);
-            info.setMoreInfo("Report-Signature-Alg", "HMAC-SHA256");
-            info.setMoreInfo("Report-Content-Text-Hash", textHash);
-            info.setCreator("Report API");
-            info.setTitle("Company Report");
-        } finally {
-            if (stampDoc != null) {
-                stampDoc.close();
-            }
+            expected = String.join("", ReportContent.fromCanonical(canonicalContent).displayText());
+        } catch (IllegalArgumentException e) {
+            return false;
         }
+        return stripWhitespace(expected).equals(stripWhitespace(extractedText));
+    }
+
+    /**
+     * The text of every page in the order it is drawn. Unlike the default location-based
+     * extraction this keeps the text of a wrapped table cell together.
+     */
+    public static String extractDrawnText(PdfDocument pdfDocument) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= pdfDocument.getNumberOfPages(); i++) {
+            text.append(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(i), new SimpleTextExtractionStrategy()))
+                    .append('\n');
+        }
+        return text.toString();
+    }
 
-        return stampedOut.toByteArray();
+    private static String stripWhitespace(String text) {
+        return text.replaceAll("[\\s\\u00A0]+", "");
     }
 
-    private void addInfoRow(StringBuilder html, String label, String value) {
+    private static void addInfoRow(List<ReportContent.InfoRow> rows, String label, String value) {
         if (value != null && !value.isBlank()) {
-            html.append("<tr><td class=\"label\">")
-                    .append(label)
-                    .append("</td><td>")
-                    .append(value)
-                    .append("</td></tr>");
+            rows.add(new ReportContent.InfoRow(label, value));
         }
     }
 
@@ -0,0 +1,158 @@
+package com.backend.service;
+
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the company report directly with the iText layout API. Sizes and colours follow
+ * {@link PdfConversionContext#REPORT_CSS} (1px = 0.75pt), so the result looks like the
+ * html2pdf rendering of the same {@link ReportContent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PdfLayoutRenderer {
+
+    private static final float PX = 0.75f;
+    private static final float FONT_SIZE = 15 * PX;
+    private static final float LINE_HEIGHT = 1.6f * FONT_SIZE;
+    private static final float MARGIN = 36 + 20 * PX;
+
+    private static final Color TEXT = new DeviceRgb(0x33, 0x33, 0x33);
+    private static final Color TITLE = new DeviceRgb(0x2c, 0x3e, 0x50);
+    private static final Color SUBTITLE = new DeviceRgb(0x7f, 0x8c, 0x8d);
+    private static final Color WATERMARK = new DeviceRgb(0xce, 0xd4, 0xda);
+    private static final Color HEADER_RULE = new DeviceRgb(0xe9, 0xec, 0xef);
+    private static final Color SECTION_RULE = new DeviceRgb(0x34, 0x98, 0xdb);
+    private static final Color LABEL = new DeviceRgb(0x55, 0x55, 0x55);
+    private static final Color TABLE_RULE = new DeviceRgb(0xde, 0xe2, 0xe6);
+    private static final Color TABLE_HEAD = new DeviceRgb(0xf8, 0xf9, 0xfa);
+    private static final Color TABLE_HEAD_TEXT = new DeviceRgb(0x34, 0x49, 0x5e);
+
+    private final PdfConversionContext conversionContext;
+
+    /**
+     * Lays out the report on {@code pdfDocument} and closes it.
+     */
+    public void render(ReportContent content, PdfDocument pdfDocument) {
+        PdfFont regular = conversionContext.createFont(false);
+        PdfFont bold = conversionContext.createFont(true);
+
+        Document document = new Document(pdfDocument, PageSize.A4);
+        document.setFont(regular).setFontSize(FONT_SIZE).setFontColor(TEXT);
+        // page margin plus the body padding of the HTML template
+        document.setMargins(MARGIN, MARGIN, MARGIN, MARGIN);
+        float contentWidth = PageSize.A4.getWidth() - 2 * MARGIN;
+
+        document.add(header(content, bold));
+        // drawn after the header, as html2pdf draws the absolute block, so the page text keeps
+        // the order of ReportContent.displayText()
+        if (content.watermark() != null && !content.watermark().isBlank()) {
+            // positioned like the absolute .watermark block, outside the text flow
+            document.add(new Paragraph(content.watermark())
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .setFont(bold).setFontSize(12 * PX).setFontColor(WATERMARK)
+                    .setMargin(0)
+                    .setFixedPosition(1, MARGIN, PageSize.A4.getHeight() - MARGIN - 5 * PX - 12 * PX, contentWidth - 5 * PX));
+        }
+        document.add(sectionTitle(ReportContent.GENERAL_SECTION, bold));
+        document.add(infoTable(content.infoRows(), bold, contentWidth));
+
+        if (!content.financialRows().isEmpty()) {
+            document.add(sectionTitle(content.financialSection(), bold)
+                    .setMarginTop(30 * PX));
+            document.add(financialTable(content.financialRows(), bold));
+        }
+        document.close();
+    }
+
+    private static Div header(ReportContent content, PdfFont bold) {
+        Div header = new Div()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setBorderBottom(new SolidBorder(HEADER_RULE, 2 * PX))
+                .setPaddingBottom(20 * PX)
+                .setMarginBottom(30 * PX);
+        header.add(new Paragraph(ReportContent.TITLE)
+                .setFont(bold).setFontSize(28 * PX).setFontColor(TITLE)
+                .setMarginTop(0.67f * 28 * PX).setMarginBottom(5 * PX));
+        header.add(new Paragraph(content.companyName())
+                .setFontSize(20 * PX).setFontColor(SUBTITLE)
+                .setMarginTop(0).setMarginBottom(0.83f * 20 * PX));
+        header.add(new Paragraph(content.headerLine())
+                .setFixedLeading(LINE_HEIGHT)
+                .setMargin(0));
+        return header;
+    }
+
+    private static Paragraph sectionTitle(String title, PdfFont bold) {
+        return new Paragraph(title)
+                .setFont(bold).setFontSize(20 * PX).setFontColor(TITLE)
+                .setBorderBottom(new SolidBorder(SECTION_RULE, 2 * PX))
+                .setPaddingBottom(10 * PX)
+                .setMarginTop(0).setMarginBottom(20 * PX);
+    }
+
+    private static Table infoTable(List<ReportContent.InfoRow> rows, PdfFont bold, float contentWidth) {
+        Table table = new Table(new float[]{200 * PX, contentWidth - 200 * PX})
+                .setWidth(contentWidth)
+                .setFixedLayout();
+        for (ReportContent.InfoRow row : rows) {
+            table.addCell(infoCell(row.label()).setFont(bold).setFontColor(LABEL));
+            table.addCell(infoCell(row.value()));
+        }
+        return table;
+    }
+
+    private static Cell infoCell(String text) {
+        return new Cell()
+                .add(new Paragraph(text).setFixedLeading(LINE_HEIGHT).setMargin(0))
+                .setBorder(Border.NO_BORDER)
+                .setPaddingTop(8 * PX).setPaddingBottom(8 * PX)
+                .setPaddingLeft(0).setPaddingRight(0);
+    }
+
+    private static Table financialTable(List<ReportContent.FinancialRow> rows, PdfFont bold) {
+        Table table = new Table(ReportContent.FINANCIAL_HEADERS.size())
+                .useAllAvailableWidth()
+                .setMarginTop(15 * PX);
+        // a plain row rather than a header, which would be repeated on every page
+        for (String header : ReportContent.FINANCIAL_HEADERS) {
+            table.addCell(financialCell(header, 2 * PX)
+                    .setFont(bold).setFontColor(TABLE_HEAD_TEXT)
+                    .setBackgroundColor(TABLE_HEAD));
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            ReportContent.FinancialRow row = rows.get(i);
+            float rule = i == rows.size() - 1 ? 0 : 1 * PX;
+            table.addCell(financialCell(String.valueOf(row.year()), rule).setFont(bold));
+            for (String amount : row.amounts()) {
+                // left aligned like the HTML, where .financial-table td outranks .text-right
+                table.addCell(financialCell(amount, rule));
+            }
+        }
+        return table;
+    }
+
+    private static Cell financialCell(String text, float bottomRule) {
+        return new Cell()
+                .add(new Paragraph(text).setFixedLeading(LINE_HEIGHT).setMargin(0))
+                .setTextAlignment(TextAlignment.LEFT)
+                .setBorder(Border.NO_BORDER)
+                .setBorderBottom(bottomRule > 0 ? new SolidBorder(TABLE_RULE, bottomRule) : Border.NO_BORDER)
+                .setPadding(12 * PX);
+    }
+}
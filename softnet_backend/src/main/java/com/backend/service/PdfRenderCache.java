@@ -0,0 +1,210 @@
+package com.backend.service;
+
+import com.backend.model.SecurePdfResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signed PDFs keyed by a hash of everything that goes into the rendered report, so identical
+ * requests are served without rendering again. Recently used reports are kept in memory;
+ * all of them are also written to app.pdf.cache.path, where the least recently used files are
+ * removed once there are more than app.pdf.cache.max-disk-entries.
+ */
+@Component
+@Slf4j
+public class PdfRenderCache {
+
+    private final PdfUtilService pdfUtilService;
+    private final boolean enabled;
+    private final Path directory;
+    private final int maxDiskEntries;
+    private final BoundedTtlCache<String, SecurePdfResult> memory;
+
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+    private final AtomicLong diskWrites = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    public PdfRenderCache(PdfUtilService pdfUtilService,
+                          @Value("${app.pdf.cache.enabled:true}") boolean enabled,
+                          @Value("${app.pdf.cache.path:./pdf-cache}") String path,
+                          @Value("${app.pdf.cache.max-memory-entries:200}") int maxMemoryEntries,
+                          @Value("${app.pdf.cache.max-disk-entries:5000}") int maxDiskEntries,
+                          @Value("${app.pdf.cache.ttl-hours:24}") long ttlHours) {
+        this.pdfUtilService = pdfUtilService;
+        this.enabled = enabled;
+        this.directory = Paths.get(path);
+        this.maxDiskEntries = Math.max(1, maxDiskEntries);
+        this.memory = new BoundedTtlCache<>(maxMemoryEntries, Duration.ofHours(ttlHours));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The cached report for {@code key}, or null. A file whose bytes no longer match the stored
+     * checksum is dropped.
+     */
+    public SecurePdfResult get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Path pdfPath = directory.resolve(key + ".pdf");
+        SecurePdfResult cached = memory.get(key);
+        if (cached != null) {
+            touch(pdfPath);
+            return cached;
+        }
+
+        Path metadataPath = directory.resolve(key + ".properties");
+        try {
+            Properties metadata = new Properties();
+            try (Reader reader = Files.newBufferedReader(metadataPath, StandardCharsets.UTF_8)) {
+                metadata.load(reader);
+            }
+            byte[] pdfBytes = Files.readAllBytes(pdfPath);
+            String checksum = metadata.getProperty("checksum");
+            if (checksum == null || !checksum.equals(pdfUtilService.calculateChecksum(pdfBytes))) {
+                log.warn("Dropping cached PDF {} with a checksum mismatch", pdfPath);
+                delete(key);
+                diskMisses.incrementAndGet();
+                return null;
+            }
+
+            SecurePdfResult result = new SecurePdfResult(pdfBytes, metadata.getProperty("fileName"), checksum,
+                    pdfBytes.length, LocalDateTime.parse(metadata.getProperty("timestamp")), metadata.getProperty("version"));
+            touch(pdfPath);
+            memory.put(key, result);
+            diskHits.incrementAndGet();
+            return result;
+        } catch (NoSuchFileException e) {
+            diskMisses.incrementAndGet();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read cached PDF {}: {}", pdfPath, e.getMessage());
+            diskMisses.incrementAndGet();
+            return null;
+        }
+    }
+
+    public void put(String key, SecurePdfResult result) {
+        if (!enabled) {
+            return;
+        }
+        memory.put(key, result);
+        try {
+            Files.createDirectories(directory);
+            Properties metadata = new Properties();
+            metadata.setProperty("fileName", result.getFileName());
+            metadata.setProperty("checksum", result.getChecksum());
+            metadata.setProperty("timestamp", result.getTimestamp().toString());
+            metadata.setProperty("version", result.getVersion());
+
+            // metadata last, so a reader never finds metadata without its PDF
+            writeAtomically(directory.resolve(key + ".pdf"), result.getPdfData());
+            Path metadataTemp = Files.createTempFile(directory, key, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(metadataTemp, StandardCharsets.UTF_8)) {
+                metadata.store(writer, null);
+            }
+            move(metadataTemp, directory.resolve(key + ".properties"));
+            diskWrites.incrementAndGet();
+            evictFromDisk();
+        } catch (IOException e) {
+            log.warn("Could not write PDF {} to the disk cache: {}", key, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("memory", memory.stats());
+        stats.put("diskHits", diskHits.get());
+        stats.put("diskMisses", diskMisses.get());
+        stats.put("diskWrites", diskWrites.get());
+        stats.put("diskEvictions", diskEvictions.get());
+        stats.put("maxDiskEntries", maxDiskEntries);
+        return stats;
+    }
+
+    private synchronized void evictFromDisk() throws IOException {
+        List<Path> pdfs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.pdf")) {
+            files.forEach(pdfs::add);
+        }
+        if (pdfs.size() <= maxDiskEntries) {
+            return;
+        }
+
+        pdfs.sort(Comparator.comparing(PdfRenderCache::lastModified));
+        for (Path pdf : pdfs.subList(0, pdfs.size() - maxDiskEntries)) {
+            String key = pdf.getFileName().toString().replace(".pdf", "");
+            memory.invalidate(key);
+            delete(key);
+            diskEvictions.incrementAndGet();
+        }
+    }
+
+    // the file time is the LRU order on disk, so memory hits count as uses too
+    private static void touch(Path pdfPath) {
+        try {
+            Files.setLastModifiedTime(pdfPath, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // evicted or not written yet; it is rewritten on the next miss
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + ".properties"));
+            Files.deleteIfExists(directory.resolve(key + ".pdf"));
+        } catch (IOException e) {
+            log.warn("Could not delete cached PDF {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] data) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        Files.write(temp, data);
+        move(temp, target);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
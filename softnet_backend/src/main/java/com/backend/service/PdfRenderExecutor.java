@@ -0,0 +1,178 @@
+package com.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs PDF rendering on a pool sized to the CPU instead of on request threads, so a burst of
+ * reports cannot take the CPU (and heap) away from the other endpoints. At most
+ * app.pdf.render.queue-capacity renders wait for a worker; beyond that, and when a render
+ * does not finish within app.pdf.render.deadline-seconds, callers get a {@link BusyException}.
+ */
+@Component
+@Slf4j
+public class PdfRenderExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int queueCapacity;
+    private final long deadlineMillis;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRenderNanos = new AtomicLong();
+    private final AtomicLong maxRenderNanos = new AtomicLong();
+
+    public PdfRenderExecutor(@Value("${app.pdf.render.threads:0}") int threads,
+                             @Value("${app.pdf.render.queue-capacity:32}") int queueCapacity,
+                             @Value("${app.pdf.render.deadline-seconds:60}") long deadlineSeconds) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.deadlineMillis = TimeUnit.SECONDS.toMillis(deadlineSeconds);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Thrown when a render is not accepted because the queue is full, or gives up because it
+     * did not finish before its deadline. Either way the client should retry later.
+     */
+    public static class BusyException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public BusyException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * Runs {@code task} on the render pool and waits for its result. Exceptions thrown by the
+     * task are rethrown as they are.
+     */
+    public <T> T render(Callable<T> task) throws Exception {
+        long submittedAt = System.nanoTime();
+        long deadline = submittedAt + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                recordWait(startedAt - submittedAt);
+                if (startedAt - deadline > 0) {
+                    // the caller has already given up
+                    throw new TimeoutException("Deadline passed while queued");
+                }
+                try {
+                    return task.call();
+                } finally {
+                    recordRender(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            long retryAfter = retryAfterSeconds();
+            log.warn("PDF render queue full ({} queued), retry after {} s", executor.getQueue().size(), retryAfter);
+            throw new BusyException("Too many reports are being generated, please retry later", retryAfter);
+        }
+        submitted.incrementAndGet();
+
+        try {
+            T result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            completed.incrementAndGet();
+            return result;
+        } catch (TimeoutException e) {
+            // a render already running finishes on its own, a queued one is dropped
+            future.cancel(false);
+            executor.purge();
+            timedOut.incrementAndGet();
+            throw new BusyException("Report generation did not finish in time, please retry later", retryAfterSeconds());
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long waits = started.get();
+        long renders = rendered.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", threads);
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("deadlineMs", deadlineMillis);
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("avgWaitMs", waits == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / waits));
+        stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        stats.put("avgRenderMs", renders == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRenderNanos.get() / renders));
+        stats.put("maxRenderMs", TimeUnit.NANOSECONDS.toMillis(maxRenderNanos.get()));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // roughly how long until the current queue has drained, from the average render time
+    private long retryAfterSeconds() {
+        long renders = Math.max(1, rendered.get());
+        long averageRenderNanos = totalRenderNanos.get() / renders;
+        long drainNanos = averageRenderNanos * (executor.getQueue().size() + executor.getActiveCount()) / threads;
+        return Math.max(1, (long) Math.ceil(drainNanos / 1e9));
+    }
+
+    private void recordWait(long nanos) {
+        started.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void recordRender(long nanos) {
+        rendered.incrementAndGet();
+        totalRenderNanos.addAndGet(nanos);
+        maxRenderNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -9,6 +9,7 @@ import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -226,6 +227,18 @@ public class PdfStorageService {
         return Base64.getEncoder().encodeToString(signatureBytes);
     }
 
+    /**
+     * Identifies the signing key without revealing it, so anything derived from signed output
+     * can be told apart once app.pdf.signature.secret changes.
+     */
+    public String signingKeyFingerprint() {
+        try {
+            return generateSignature("report-signing-key".getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not fingerprint the signing key", e);
+        }
+    }
+
     public boolean verifySignature(byte[] pdfBytes, String providedSignature) throws Exception {
         String calculatedSignature = generateSignature(pdfBytes);
         return calculatedSignature.equals(providedSignature);
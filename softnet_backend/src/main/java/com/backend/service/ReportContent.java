@@ -0,0 +1,177 @@
+package com.backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values shown in a company report, already formatted and in display order. Every report
+ * engine renders from this, so they all show the same values and sign the same canonical
+ * content.
+ */
+record ReportContent(String watermark,
+                     String companyName,
+                     String cui,
+                     String timestampLabel,
+                     String shownTimestamp,
+                     List<InfoRow> infoRows,
+                     List<FinancialRow> financialRows) {
+
+    static final String TITLE = "Company Report";
+    static final String GENERAL_SECTION = "General Information";
+    static final List<String> FINANCIAL_HEADERS = List.of("Year", "Net Turnover (RON)", "Net Profit (RON)",
+            "Total Expenses (RON)", "Total Liabilities (RON)", "Total Capital (RON)", "Fixed Assets (RON)",
+            "Avg. Employees");
+
+    private static final List<String> FINANCIAL_FIELDS = List.of("year", "netTurnover", "netProfit", "totalExpenses",
+            "liabilities", "totalCapital", "fixedAssets", "averageEmployees");
+
+    record InfoRow(String label, String value) {
+    }
+
+    record FinancialRow(int year, String netTurnover, String netProfit, String totalExpenses, String liabilities,
+                        String totalCapital, String fixedAssets, String averageEmployees) {
+
+        /** The amounts in the order of {@link #FINANCIAL_HEADERS}, without the year. */
+        List<String> amounts() {
+            return List.of(netTurnover, netProfit, totalExpenses, liabilities, totalCapital, fixedAssets, averageEmployees);
+        }
+    }
+
+    /**
+     * One "key=value" line per shown value. This is what the report signature covers, so the
+     * keys and their order must not change within a scheme.
+     */
+    String canonical(String scheme, String version) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append("scheme=").append(scheme).append('\n');
+        canonical.append("version=").append(version).append('\n');
+        add(canonical, "watermark", watermark);
+        add(canonical, "title", companyName);
+        add(canonical, "cui", cui);
+        add(canonical, timestampLabel, shownTimestamp);
+        for (InfoRow row : infoRows) {
+            add(canonical, row.label(), row.value());
+        }
+        for (FinancialRow row : financialRows) {
+            String prefix = "record." + row.year() + ".";
+            add(canonical, prefix + "year", String.valueOf(row.year()));
+            add(canonical, prefix + "netTurnover", row.netTurnover());
+            add(canonical, prefix + "netProfit", row.netProfit());
+            add(canonical, prefix + "totalExpenses", row.totalExpenses());
+            add(canonical, prefix + "liabilities", row.liabilities());
+            add(canonical, prefix + "totalCapital", row.totalCapital());
+            add(canonical, prefix + "fixedAssets", row.fixedAssets());
+            add(canonical, prefix + "averageEmployees", row.averageEmployees());
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * The text the report shows, in the order the renderers draw it. Text extracted from a
+     * genuine report in drawing order is exactly this, up to whitespace.
+     */
+    List<String> displayText() {
+        List<String> text = new ArrayList<>();
+        text.add(TITLE);
+        text.add(companyName);
+        text.add(headerLine());
+        // positioned out of the flow, so it is drawn after the rest of the header
+        if (watermark != null && !watermark.isBlank()) {
+            text.add(watermark);
+        }
+        text.add(GENERAL_SECTION);
+        for (InfoRow row : infoRows) {
+            text.add(row.label());
+            text.add(row.value());
+        }
+        if (!financialRows.isEmpty()) {
+            text.add(financialSection());
+            text.addAll(FINANCIAL_HEADERS);
+            for (FinancialRow row : financialRows) {
+                text.add(String.valueOf(row.year()));
+                text.addAll(row.amounts());
+            }
+        }
+        return text;
+    }
+
+    String headerLine() {
+        return "CUI: " + cui + " | " + timestampLabel + ": " + shownTimestamp;
+    }
+
+    String financialSection() {
+        return "Financial Data (Last " + financialRows.size() + " Years)";
+    }
+
+    /**
+     * Rebuilds the content from {@link #canonical}. Only the scheme and version lines are
+     * dropped, so the result renders the same text as the report that was signed.
+     *
+     * @throws IllegalArgumentException if the text is not canonical content
+     */
+    static ReportContent fromCanonical(String canonical) {
+        String watermark = null;
+        String companyName = null;
+        String cui = null;
+        String timestampLabel = null;
+        String shownTimestamp = null;
+        List<InfoRow> infoRows = new ArrayList<>();
+        Map<Integer, Map<String, String>> records = new LinkedHashMap<>();
+
+        for (String line : canonical.split("\n")) {
+            int separator = line.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed canonical line: " + line);
+            }
+            String key = line.substring(0, separator);
+            String value = line.substring(separator + 1);
+            switch (key) {
+                case "scheme", "version" -> {
+                }
+                case "watermark" -> watermark = value;
+                case "title" -> companyName = value;
+                case "cui" -> cui = value;
+                case "Generated", "Data as of" -> {
+                    timestampLabel = key;
+                    shownTimestamp = value;
+                }
+                default -> {
+                    if (key.startsWith("record.")) {
+                        String[] parts = key.split("\\.", 3);
+                        if (parts.length != 3) {
+                            throw new IllegalArgumentException("Malformed canonical key: " + key);
+                        }
+                        records.computeIfAbsent(Integer.parseInt(parts[1]), year -> new LinkedHashMap<>())
+                                .put(parts[2], value);
+                    } else {
+                        infoRows.add(new InfoRow(key, value));
+                    }
+                }
+            }
+        }
+        if (companyName == null || cui == null || timestampLabel == null) {
+            throw new IllegalArgumentException("Canonical content is missing the report header");
+        }
+
+        List<FinancialRow> financialRows = new ArrayList<>();
+        records.forEach((year, fields) -> {
+            if (fields.size() != FINANCIAL_FIELDS.size() || !fields.keySet().containsAll(FINANCIAL_FIELDS)) {
+                throw new IllegalArgumentException("Incomplete canonical record for " + year);
+            }
+        });
+        records.forEach((year, fields) -> financialRows.add(new FinancialRow(year,
+                fields.get("netTurnover"), fields.get("netProfit"), fields.get("totalExpenses"),
+                fields.get("liabilities"), fields.get("totalCapital"), fields.get("fixedAssets"),
+                fields.get("averageEmployees"))));
+        return new ReportContent(watermark, companyName, cui, timestampLabel, shownTimestamp, infoRows, financialRows);
+    }
+
+    private static void add(StringBuilder canonical, String key, String value) {
+        if (value != null && !value.isBlank()) {
+            // values are single-line in the canonical form
+            canonical.append(key).append('=').append(value.replace('\r', ' ').replace('\n', ' ')).append('\n');
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the work,
+ * everyone arriving while it is in flight receives the same result.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        Claim<V> claim = claim(key);
+        if (!claim.isOwner()) {
+            return claim.getResult();
+        }
+
+        CompletableFuture<V> work;
+        try {
+            work = call.get();
+        } catch (RuntimeException e) {
+            work = CompletableFuture.failedFuture(e);
+        }
+        work.whenComplete((value, error) -> complete(key, claim, value, error));
+        return claim.getResult();
+    }
+
+    /**
+     * Lower level entry point for callers that run the work for several keys together.
+     * The owner of a claim must finish it with {@link #complete}.
+     */
+    public Claim<V> claim(K key) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return new Claim<>(existing, false);
+        }
+        executed.incrementAndGet();
+        return new Claim<>(promise, true);
+    }
+
+    public void complete(K key, Claim<V> claim, V value, Throwable error) {
+        if (!claim.isOwner()) {
+            return;
+        }
+        inFlight.remove(key, claim.promise);
+        if (error != null) {
+            claim.promise.completeExceptionally(AsyncResults.unwrap(error));
+        } else {
+            claim.promise.complete(value);
+        }
+    }
+
+    public long getExecuted() {
+        return executed.get();
+    }
+
+    public long getShared() {
+        return shared.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public static final class Claim<V> {
+        private final CompletableFuture<V> promise;
+        private final boolean owner;
+
+        private Claim(CompletableFuture<V> promise, boolean owner) {
+            this.promise = promise;
+            this.owner = owner;
+        }
+
+        public boolean isOwner() {
+            return owner;
+        }
+
+        // a copy, so one caller cancelling does not affect the others sharing the flight
+        public CompletableFuture<V> getResult() {
+            return promise.copy();
+        }
+    }
+}
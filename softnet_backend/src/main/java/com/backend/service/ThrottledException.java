@@ -0,0 +1,14 @@
+package com.backend.service;
+
+import java.io.IOException;
+
+/**
+ * ANAF answered with HTTP 429 or 503. The outbound limiter has already slowed down;
+ * the call may be retried but does not count as an upstream failure.
+ */
+public class ThrottledException extends IOException {
+
+    public ThrottledException(String message) {
+        super(message);
+    }
+}
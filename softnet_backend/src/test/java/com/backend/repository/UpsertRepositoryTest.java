@@ -0,0 +1,105 @@
+package com.backend.repository;
+
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class UpsertRepositoryTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UpsertRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE firma (gguid TEXT NOT NULL, insert_timestamp TIMESTAMP NOT NULL,"
+                + " cui VARCHAR(10) UNIQUE, company_name TEXT, fiscal_address TEXT, trade_register_no TEXT, phone TEXT,"
+                + " fax TEXT, postal_code TEXT, registration_date DATE, caen_code TEXT, caen_description TEXT,"
+                + " is_vat_payer BOOLEAN, is_inactive BOOLEAN, last_verified_at TIMESTAMP, content_hash VARCHAR(64),"
+                + " last_modified TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE bilant (gguid TEXT NOT NULL, insert_timestamp TIMESTAMP NOT NULL,"
+                + " cui VARCHAR(10), year INTEGER, net_turnover BIGINT, net_profit BIGINT, total_expenses BIGINT,"
+                + " liabilities BIGINT, total_capital BIGINT, fixed_assets BIGINT, average_employees INTEGER,"
+                + " is_stale BOOLEAN, content_hash VARCHAR(64), last_modified TIMESTAMP, UNIQUE (cui, year))");
+        repository = new UpsertRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void duplicateFinancialKeysKeepTheLastEntry() {
+        List<FinancialRecord> stored = repository.upsertFinancialRecords(List.of(
+                record("111", 2023, 10L), record("111", 2022, 20L), record("111", 2023, 30L)));
+
+        assertEquals(2, stored.size());
+        assertEquals(30L, stored.get(0).getNetTurnover());
+        assertEquals(2, count("bilant"));
+        assertEquals(30L, jdbcTemplate.queryForObject(
+                "SELECT net_turnover FROM bilant WHERE cui = '111' AND year = 2023", Long.class));
+    }
+
+    @Test
+    void duplicateCuisKeepTheLastEntry() {
+        List<CompanyData> stored = repository.upsertCompanies(List.of(company("111", "OLD SRL"), company("111", "NEW SRL")));
+
+        assertEquals(1, stored.size());
+        assertEquals("NEW SRL", stored.get(0).getCompanyName());
+        assertEquals(1, count("firma"));
+        assertEquals("NEW SRL", jdbcTemplate.queryForObject("SELECT company_name FROM firma", String.class));
+    }
+
+    @Test
+    void updatesKeepTheIdAndOnlyMoveLastModifiedOnChanges() throws InterruptedException {
+        FinancialRecord first = repository.upsertFinancialRecord(record("111", 2023, 10L));
+        Thread.sleep(5);
+        FinancialRecord unchanged = repository.upsertFinancialRecord(record("111", 2023, 10L));
+        Thread.sleep(5);
+        FinancialRecord changed = repository.upsertFinancialRecord(record("111", 2023, 11L));
+
+        assertNotNull(first.getGguid());
+        assertEquals(first.getGguid(), changed.getGguid());
+        assertEquals(first.getInsertTimestamp(), changed.getInsertTimestamp());
+        assertEquals(first.getLastModified(), unchanged.getLastModified());
+        assertNotEquals(first.getLastModified(), changed.getLastModified());
+        assertEquals(1, count("bilant"));
+    }
+
+    @Test
+    void missingCompaniesAreInsertedOnce() {
+        repository.upsertCompany(company("111", "ALFA SRL"));
+
+        assertEquals(1, repository.insertMissingCompanies(List.of("111", "222", "222")));
+
+        Map<String, Object> existing = jdbcTemplate.queryForMap("SELECT company_name FROM firma WHERE cui = '111'");
+        assertEquals("ALFA SRL", existing.get("company_name"));
+        assertEquals(2, count("firma"));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static FinancialRecord record(String cui, int year, Long netTurnover) {
+        return FinancialRecord.builder().cui(cui).year(year).netTurnover(netTurnover).build();
+    }
+
+    private static CompanyData company(String cui, String name) {
+        return CompanyData.builder().cui(cui).companyName(name).isVatPayer(true).isInactive(false).build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.backend.service;
+
+import com.backend.model.response.BilantResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnafJsonAdaptersTest {
+
+    private final Gson gson = AnafJsonAdapters.createGson();
+
+    @Test
+    void nullIndicatorValueReadsAsZero() throws IOException {
+        BilantResponse response = read("{\"an\":2023,\"i\":[{\"indicator\":\"I13\",\"val_indicator\":null},"
+                + "{\"indicator\":\"I18\",\"val_indicator\":42}]}");
+
+        assertEquals(0, response.getIndicatori().get(0).getValoareIndicator());
+        assertEquals(42, response.getIndicatori().get(1).getValoareIndicator());
+    }
+
+    @Test
+    void fractionalAndQuotedIndicatorValuesAreRounded() throws IOException {
+        BilantResponse response = read("{\"i\":[{\"indicator\":\"I13\",\"val_indicator\":1234.5},"
+                + "{\"indicator\":\"I18\",\"val_indicator\":\"-7.2\"},"
+                + "{\"indicator\":\"I20\",\"val_indicator\":1.2E3}]}");
+
+        assertEquals(1235, response.getIndicatori().get(0).getValoareIndicator());
+        assertEquals(-7, response.getIndicatori().get(1).getValoareIndicator());
+        assertEquals(1200, response.getIndicatori().get(2).getValoareIndicator());
+    }
+
+    @Test
+    void nonNumericIndicatorValueIsRejected() {
+        assertThrows(JsonSyntaxException.class,
+                () -> read("{\"i\":[{\"indicator\":\"I13\",\"val_indicator\":\"n/a\"}]}"));
+    }
+
+    private BilantResponse read(String json) throws IOException {
+        return gson.getAdapter(BilantResponse.class).read(AnafJsonAdapters.newReader(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,179 @@
+package com.backend.service;
+
+import com.backend.model.response.AnafResponse;
+import com.backend.model.response.FoundCompany;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnafServiceTest {
+
+    private static final Pattern REQUESTED_CUI = Pattern.compile("\"cui\":(\\d+)");
+
+    private final HttpClient client = mock(HttpClient.class);
+    private final List<List<Integer>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final Set<Integer> registered = Set.of(1, 2, 3, 150);
+    private ExecutorService responseExecutor;
+    private AnafService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        OutboundRateLimiter rateLimiter = mock(OutboundRateLimiter.class);
+        when(rateLimiter.acquire(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        AnafResilience resilience = mock(AnafResilience.class);
+        when(resilience.execute(anyString(), any())).thenAnswer(call -> ((Supplier<?>) call.getArgument(1)).get());
+        when(resilience.withDeadline(any())).thenAnswer(call -> call.getArgument(0));
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(call -> CompletableFuture.completedFuture(answer(call.getArgument(0))));
+
+        responseExecutor = Executors.newSingleThreadExecutor();
+        service = new AnafService(client, rateLimiter, resilience, new NegativeResultCache(100, 60, 60),
+                responseExecutor, 50, 100, 30, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        responseExecutor.shutdown();
+    }
+
+    @Test
+    void concurrentLookupsShareOneRequestAndGetTheirOwnPart() {
+        CompletableFuture<AnafResponse> first = service.checkAnafAsync(1);
+        CompletableFuture<AnafResponse> second = service.checkAnafAsync(2);
+        CompletableFuture<AnafResponse> sameAgain = service.checkAnafAsync(1);
+        CompletableFuture<AnafResponse> missing = service.checkAnafAsync(99);
+
+        assertEquals(List.of(1L), cuis(first.join().getFound()));
+        assertEquals(List.of(2L), cuis(second.join().getFound()));
+        assertEquals(List.of(1L), cuis(sameAgain.join().getFound()));
+        assertEquals(List.of(), missing.join().getFound());
+        assertEquals(1, missing.join().getNotFound().size());
+        assertTrue(first.join().getNotFound().isEmpty());
+        assertEquals(List.of(List.of(1, 2, 99)), requests);
+    }
+
+    @Test
+    void largeBatchesAreSplitAndMerged() {
+        List<Integer> cuis = IntStream.rangeClosed(1, 150).boxed().collect(Collectors.toList());
+        cuis.add(1);
+
+        AnafResponse merged = service.checkAnafBatchAsync(cuis).join();
+
+        assertEquals(2, requests.size());
+        assertEquals(AnafService.MAX_BATCH_SIZE, requests.get(0).size());
+        assertEquals(50, requests.get(1).size());
+        assertEquals(List.of(1L, 2L, 3L, 150L), cuis(merged.getFound()));
+        assertEquals(146, merged.getNotFound().size());
+    }
+
+    @Test
+    void cuisReportedNotFoundAreNotRequestedAgain() {
+        service.checkAnafBatchAsync(List.of(1, 99)).join();
+
+        AnafResponse second = service.checkAnafBatchAsync(List.of(1, 99)).join();
+        AnafResponse single = service.checkAnafAsync(99).join();
+
+        assertEquals(List.of(List.of(1, 99), List.of(1)), requests);
+        assertEquals(List.of(1L), cuis(second.getFound()));
+        assertEquals(List.of(99), second.getNotFound());
+        assertEquals(List.of(99), single.getNotFound());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedRequestFailsEveryWaiter() {
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("connection reset")));
+
+        CompletableFuture<AnafResponse> first = service.checkAnafAsync(1);
+        CompletableFuture<AnafResponse> second = service.checkAnafAsync(2);
+
+        assertInstanceOf(IOException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IOException.class, assertThrows(CompletionException.class, second::join).getCause());
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpResponse<InputStream> answer(HttpRequest request) {
+        List<Integer> requested = new ArrayList<>();
+        Matcher matcher = REQUESTED_CUI.matcher(body(request));
+        while (matcher.find()) {
+            requested.add(Integer.parseInt(matcher.group(1)));
+        }
+        requests.add(requested);
+
+        String found = requested.stream().filter(registered::contains)
+                .map(cui -> "{\"date_generale\":{\"cui\":" + cui + ",\"denumire\":\"FIRMA " + cui + "\"}}")
+                .collect(Collectors.joining(","));
+        String notFound = requested.stream().filter(cui -> !registered.contains(cui))
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        String json = "{\"cod\":200,\"message\":\"SUCCESS\",\"found\":[" + found + "],\"notFound\":[" + notFound + "]}";
+
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private static String body(HttpRequest request) {
+        StringBuilder body = new StringBuilder();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                body.append(StandardCharsets.UTF_8.decode(item));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        return body.toString();
+    }
+
+    private static List<Long> cuis(List<FoundCompany> companies) {
+        return companies.stream().map(FoundCompany::getCui).sorted().collect(Collectors.toList());
+    }
+}
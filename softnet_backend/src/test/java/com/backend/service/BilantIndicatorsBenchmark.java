@@ -0,0 +1,88 @@
+package com.backend.service;
+
+import com.backend.model.response.Indicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@link BilantIndicators#extract} with the map it replaced, on a statement shaped
+ * like an ANAF reply (about forty indicators, seven of them stored). Run {@link #main} with
+ * the test classpath, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BilantIndicatorsBenchmark {
+
+    private static final String[] STORED = {"I1", "I7", "I10", "I13", "I15", "I18", "I20"};
+
+    private List<Indicator> indicators;
+
+    @Setup
+    public void setUp() {
+        indicators = statement(46);
+    }
+
+    @Benchmark
+    public long[] fixedSlots() {
+        return BilantIndicators.extract(indicators);
+    }
+
+    @Benchmark
+    public long[] indicatorMap() {
+        return extractWithMap(indicators);
+    }
+
+    /**
+     * What DatabaseService did before the fixed slots: a map of every indicator, then one
+     * lookup per stored code.
+     */
+    static long[] extractWithMap(List<Indicator> indicators) {
+        Map<String, Indicator> indicatorMap = indicators.stream()
+                .collect(Collectors.toMap(Indicator::getCodIndicator, indicator -> indicator));
+        long[] values = new long[BilantIndicators.SLOT_COUNT];
+        for (String code : STORED) {
+            Indicator indicator = indicatorMap.get(code);
+            values[BilantIndicators.slotOf(code)] = indicator != null ? indicator.getValoareIndicator() : 0;
+        }
+        return values;
+    }
+
+    static List<Indicator> statement(int size) {
+        List<Indicator> indicators = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Indicator indicator = new Indicator();
+            indicator.setCodIndicator("I" + i);
+            indicator.setValoareIndicator(1_000L * i + 7);
+            indicator.setDenumireIndicator("Indicator " + i);
+            indicators.add(indicator);
+        }
+        return indicators;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BilantIndicatorsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,41 @@
+package com.backend.service;
+
+import com.backend.model.response.Indicator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BilantIndicatorsTest {
+
+    @Test
+    void fixedSlotsMatchTheIndicatorMap() {
+        List<Indicator> indicators = BilantIndicatorsBenchmark.statement(46);
+
+        assertArrayEquals(BilantIndicatorsBenchmark.extractWithMap(indicators), BilantIndicators.extract(indicators));
+    }
+
+    @Test
+    void missingIndicatorsStayZeroAndRepeatedCodesKeepTheLastValue() {
+        List<Indicator> indicators = new ArrayList<>(BilantIndicatorsBenchmark.statement(9));
+        indicators.add(null);
+        indicators.add(indicator("I13", 42));
+
+        long[] values = BilantIndicators.extract(indicators);
+
+        assertEquals(42, values[BilantIndicators.NET_TURNOVER]);
+        assertEquals(0, values[BilantIndicators.TOTAL_CAPITAL]);
+        assertEquals(7_007, values[BilantIndicators.LIABILITIES]);
+        assertArrayEquals(new long[BilantIndicators.SLOT_COUNT], BilantIndicators.extract(null));
+    }
+
+    private static Indicator indicator(String code, long value) {
+        Indicator indicator = new Indicator();
+        indicator.setCodIndicator(code);
+        indicator.setValoareIndicator(value);
+        return indicator;
+    }
+}
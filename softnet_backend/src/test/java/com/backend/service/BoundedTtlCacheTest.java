@@ -0,0 +1,65 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+
+        BoundedTtlCache.CacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getMaxSize());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.75, stats.getHitRatio(), 0.001);
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofNanos(-1));
+        cache.put("a", "1");
+
+        assertFalse(cache.contains("a"));
+        assertEquals(1, cache.stats().getExpirations());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void invalidationRemovesMatchingKeys() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("1:2023", "a");
+        cache.put("1:2022", "b");
+        cache.put("2:2023", "c");
+
+        cache.invalidateIf(key -> key.startsWith("1:"));
+        assertFalse(cache.contains("1:2023"));
+        assertTrue(cache.contains("2:2023"));
+
+        cache.invalidate("2:2023");
+        assertFalse(cache.contains("2:2023"));
+        assertEquals(0, cache.stats().getEvictions());
+    }
+
+    @Test
+    void emptyCacheHasNoHitRatio() {
+        assertEquals(0, new BoundedTtlCache<String, String>(0, Duration.ofMinutes(1)).stats().getHitRatio());
+    }
+}
@@ -0,0 +1,127 @@
+package com.backend.service;
+
+import com.backend.model.entity.ImportJob;
+import com.backend.model.entity.ImportJobItem;
+import com.backend.repository.ImportJobItemRepository;
+import com.backend.repository.ImportJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkImportServiceTest {
+
+    private final AnafService anafService = mock(AnafService.class);
+    private final AnafResilience resilience = mock(AnafResilience.class);
+    private final ImportJobRepository jobRepository = mock(ImportJobRepository.class);
+    private final ImportJobItemRepository itemRepository = mock(ImportJobItemRepository.class);
+    private final ImportJob job = ImportJob.builder()
+            .gguid(UUID.randomUUID())
+            .status(ImportJob.Status.RUNNING)
+            .years(1)
+            .totalItems(2)
+            .processedItems(0)
+            .importedItems(0)
+            .notFoundItems(0)
+            .failedItems(0)
+            .build();
+    private final List<ImportJobItem> items = List.of(item(0, "14399840"), item(1, "18547290"));
+    private BulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkImportService(anafService, mock(CompanyFinancialService.class), mock(DatabaseService.class),
+                resilience, mock(OutboundRateLimiter.class), jobRepository, itemRepository,
+                mock(PlatformTransactionManager.class), 100, 3, 1000, 30, 10);
+        when(jobRepository.findByStatusInOrderByInsertTimestampAsc(anyCollection())).thenReturn(List.of(job));
+        when(jobRepository.findById(job.getGguid())).thenReturn(Optional.of(job));
+        when(jobRepository.save(any(ImportJob.class))).thenAnswer(call -> call.getArgument(0));
+        when(itemRepository.findDueItems(eq(job.getGguid()), eq(ImportJobItem.Status.PENDING), any(), any()))
+                .thenReturn(items, List.of());
+        when(itemRepository.findNextAttemptAt(job.getGguid(), ImportJobItem.Status.PENDING))
+                .thenReturn(LocalDateTime.now().plusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void batchRefusedByAnOpenCircuitKeepsItsAttempts() throws Exception {
+        // the circuit opens between the availability check and the ANAF call
+        when(resilience.isOpen(anyString())).thenReturn(false, false, true);
+        when(anafService.checkAnafBatch(any())).thenThrow(new CircuitOpenException("ANAF circuit is open"));
+
+        service.resumeUnfinishedJobs();
+        verify(itemRepository, timeout(5000)).saveAll(items);
+        Thread.sleep(100);
+
+        verify(anafService, times(1)).checkAnafBatch(any());
+        for (ImportJobItem item : items) {
+            assertEquals(ImportJobItem.Status.PENDING, item.getStatus());
+            assertEquals(0, item.getAttempts());
+        }
+        assertEquals(0, job.getFailedItems());
+        assertEquals(0, job.getProcessedItems());
+        assertEquals(ImportJob.Status.RUNNING, job.getStatus());
+    }
+
+    @Test
+    void failedItemsAreRetriedAfterABackoff() throws Exception {
+        when(anafService.checkAnafBatch(any())).thenThrow(new IOException("connection reset"));
+
+        service.resumeUnfinishedJobs();
+        verify(itemRepository, timeout(5000)).saveAll(items);
+
+        for (ImportJobItem item : items) {
+            assertEquals(ImportJobItem.Status.PENDING, item.getStatus());
+            assertEquals(1, item.getAttempts());
+            assertTrue(item.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        }
+        assertEquals(0, job.getFailedItems());
+    }
+
+    @Test
+    void cancellationIsNotHeldUpByAWaitingJob() throws Exception {
+        when(resilience.isOpen(anyString())).thenReturn(true);
+
+        service.resumeUnfinishedJobs();
+        service.cancelJob(job.getGguid());
+
+        verify(jobRepository, timeout(5000).times(2)).save(job);
+        assertEquals(ImportJob.Status.CANCELLED, job.getStatus());
+        verify(anafService, times(0)).checkAnafBatch(any());
+        assertNull(items.get(0).getErrorMessage());
+    }
+
+    private ImportJobItem item(int position, String cui) {
+        return ImportJobItem.builder()
+                .gguid(UUID.randomUUID())
+                .jobId(job.getGguid())
+                .position(position)
+                .cui(cui)
+                .status(ImportJobItem.Status.PENDING)
+                .attempts(0)
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofMinutes(1));
+
+        fail(breaker, 2);
+        breaker.onSuccess();
+        fail(breaker, 2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        fail(breaker, 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejected());
+        assertEquals(1, breaker.getTimesOpened());
+        assertEquals(5, breaker.getFailures());
+    }
+
+    @Test
+    void halfOpenLetsOneTrialThrough() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        fail(breaker, 1);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() {
+        CircuitBreaker halfOpen = new CircuitBreaker(2, Duration.ZERO);
+        fail(halfOpen, 2);
+
+        assertTrue(halfOpen.tryAcquire());
+        halfOpen.onFailure();
+
+        assertEquals(2, halfOpen.getTimesOpened());
+        assertEquals(3, halfOpen.getConsecutiveFailures());
+    }
+
+    @Test
+    void ignoredTrialFreesTheSlotWithoutClosing() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        fail(breaker, 1);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onIgnored();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(1, breaker.getConsecutiveFailures());
+    }
+
+    private static void fail(CircuitBreaker breaker, int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompanyDemandTrackerTest {
+
+    @Test
+    void mostRequestedComeFirst() {
+        CompanyDemandTracker tracker = new CompanyDemandTracker(10);
+        tracker.recordRequest("111");
+        tracker.recordRequest("222");
+        tracker.recordRequest("222");
+        tracker.recordRequest("333");
+        tracker.recordRequest("333");
+        tracker.recordRequest("333");
+
+        assertEquals(List.of("333", "222"), tracker.mostRequested(2));
+    }
+
+    @Test
+    void newCompaniesDisplaceTheLeastRequestedOnceFull() {
+        CompanyDemandTracker tracker = new CompanyDemandTracker(2);
+        tracker.recordRequest("111");
+        tracker.recordRequest("111");
+        tracker.recordRequest("222");
+
+        tracker.recordRequest("333");
+
+        assertEquals(2, tracker.getTrackedCompanies());
+        assertEquals(List.of("111", "333"), tracker.mostRequested(10));
+    }
+
+    @Test
+    void clearedCompaniesStopBeingTracked() {
+        CompanyDemandTracker tracker = new CompanyDemandTracker(10);
+        tracker.recordRequest("111");
+        tracker.recordRequest("222");
+
+        tracker.clear(List.of("111"));
+
+        assertEquals(List.of("222"), tracker.mostRequested(10));
+    }
+}
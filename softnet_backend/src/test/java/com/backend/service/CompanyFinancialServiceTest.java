@@ -0,0 +1,151 @@
+package com.backend.service;
+
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import com.backend.model.response.AnafResponse;
+import com.backend.model.response.BilantResponse;
+import com.backend.model.response.CompanyLookupResult;
+import com.backend.model.response.FoundCompany;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CompanyFinancialServiceTest {
+
+    private static final String CUI = "14399840";
+
+    private AnafService anafService;
+    private BilantService bilantService;
+    private DatabaseService databaseService;
+    private AnafResilience resilience;
+    private CompanyFinancialService service;
+    private int latestYear;
+
+    @BeforeEach
+    void setUp() {
+        anafService = mock(AnafService.class);
+        bilantService = mock(BilantService.class);
+        databaseService = mock(DatabaseService.class);
+        resilience = mock(AnafResilience.class);
+        service = new CompanyFinancialService(anafService, bilantService, databaseService,
+                mock(CompanyDemandTracker.class), mock(OutboundRateLimiter.class), resilience);
+        ReflectionTestUtils.setField(service, "refreshHorizonYears", 1);
+        ReflectionTestUtils.setField(service, "softTtlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "hardTtlMinutes", 120L);
+        ReflectionTestUtils.setField(service, "upstreamTimeoutMs", 5000L);
+        when(databaseService.getFinancialRecordsByCuiAndYearRange(anyString(), anyInt(), anyInt())).thenReturn(List.of());
+        when(databaseService.saveFinancialRecords(anyList())).thenReturn(List.of());
+        latestYear = service.getCurrentFinancialYear();
+    }
+
+    @Test
+    void missingStatementsAreNotFailures() {
+        for (boolean parallel : new boolean[]{true, false}) {
+            ReflectionTestUtils.setField(service, "parallelYears", parallel);
+            when(bilantService.checkBilantAsync(anyInt(), anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+
+            assertDoesNotThrow(() -> AsyncResults.await(service.processFinancialYearsAsync(CUI, 2)));
+        }
+    }
+
+    @Test
+    void transportFailuresFailTheYearsAfterStoringTheRest() {
+        ReflectionTestUtils.setField(service, "parallelYears", true);
+        BilantResponse found = new BilantResponse();
+        when(bilantService.checkBilantAsync(anyInt(), eq(latestYear))).thenReturn(CompletableFuture.completedFuture(found));
+        when(bilantService.checkBilantAsync(anyInt(), eq(latestYear - 1)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("connection reset")));
+
+        FinancialYearsException error = assertThrows(FinancialYearsException.class,
+                () -> AsyncResults.await(service.processFinancialYearsAsync(CUI, 2)));
+
+        assertEquals(List.of(latestYear - 1), error.getFailedYears());
+        verify(databaseService).saveFinancialRecords(List.of(found));
+    }
+
+    @Test
+    void transportFailuresAreReportedSequentiallyToo() {
+        ReflectionTestUtils.setField(service, "parallelYears", false);
+        when(bilantService.checkBilantAsync(anyInt(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("timeout")));
+
+        FinancialYearsException error = assertThrows(FinancialYearsException.class,
+                () -> AsyncResults.await(service.processFinancialYearsAsync(CUI, 2)));
+
+        assertEquals(List.of(latestYear - 1, latestYear), error.getFailedYears());
+    }
+
+    @Test
+    void storedClosedYearsAreNotFetched() {
+        ReflectionTestUtils.setField(service, "parallelYears", true);
+        FinancialRecord stored = FinancialRecord.builder().cui(CUI).year(latestYear - 1).isStale(false).build();
+        when(databaseService.getFinancialRecordsByCuiAndYearRange(anyString(), anyInt(), anyInt())).thenReturn(List.of(stored));
+        when(bilantService.checkBilantAsync(anyInt(), eq(latestYear))).thenReturn(CompletableFuture.completedFuture(null));
+        when(bilantService.checkBilantAsync(anyInt(), eq(latestYear - 1)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("must not be requested")));
+
+        assertDoesNotThrow(() -> AsyncResults.await(service.processFinancialYearsAsync(CUI, 2)));
+    }
+
+    @Test
+    void openBilantCircuitServesStoredDataAsStale() throws Exception {
+        CompanyData stored = CompanyData.builder().cui(CUI).companyName("ACME SRL").build();
+        when(databaseService.getCompanyByCui(CUI)).thenReturn(Optional.of(stored));
+        when(resilience.isOpen(OutboundRateLimiter.BILANT)).thenReturn(true);
+
+        CompanyLookupResult result = AsyncResults.await(service.lookupCompanyAsync(CUI, 2));
+
+        assertEquals(CompanyLookupResult.Freshness.STALE, result.getFreshness());
+        verify(anafService, never()).checkAnafAsync(anyInt());
+    }
+
+    @Test
+    void refreshWithFailedYearsIsNotFresh() throws Exception {
+        CompanyData stored = CompanyData.builder().cui(CUI).companyName("ACME SRL").build();
+        when(databaseService.getCompanyByCui(CUI)).thenReturn(Optional.of(stored));
+        givenCompanyFoundButYearsFailing();
+
+        CompanyLookupResult result = AsyncResults.await(service.lookupCompanyAsync(CUI, 2));
+
+        assertEquals(CompanyLookupResult.Freshness.STALE, result.getFreshness());
+    }
+
+    @Test
+    void newCompanyWithFailedYearsIsNotFresh() throws Exception {
+        CompanyData saved = CompanyData.builder().cui(CUI).companyName("ACME SRL").build();
+        when(databaseService.getCompanyByCui(CUI)).thenReturn(Optional.empty(), Optional.of(saved));
+        givenCompanyFoundButYearsFailing();
+
+        CompanyLookupResult result = AsyncResults.await(service.lookupCompanyAsync(CUI, 2));
+
+        assertEquals(CompanyLookupResult.Freshness.STALE, result.getFreshness());
+        assertEquals(saved, result.getCompany());
+    }
+
+    private void givenCompanyFoundButYearsFailing() {
+        ReflectionTestUtils.setField(service, "parallelYears", true);
+        AnafResponse response = new AnafResponse();
+        response.setFound(List.of(new FoundCompany()));
+        when(anafService.checkAnafAsync(anyInt())).thenReturn(CompletableFuture.completedFuture(response));
+        when(databaseService.saveCompanyData(response)).thenReturn(CompanyData.builder().cui(CUI).companyName("ACME SRL").build());
+        when(bilantService.checkBilantAsync(anyInt(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("connection reset")));
+    }
+}
@@ -0,0 +1,33 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CuisTest {
+
+    @Test
+    void prefixSpacesAndLeadingZerosAreDropped() {
+        assertEquals("14399840", Cuis.normalize("RO14399840"));
+        assertEquals("14399840", Cuis.normalize("ro 14 399 840"));
+        assertEquals("123", Cuis.normalize("000123"));
+    }
+
+    @Test
+    void invalidCuisAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Cuis.normalize(null));
+        assertThrows(IllegalArgumentException.class, () -> Cuis.normalize("1"));
+        assertThrows(IllegalArgumentException.class, () -> Cuis.normalize("DE14399840"));
+        assertThrows(IllegalArgumentException.class, () -> Cuis.normalize("9999999999"));
+    }
+
+    @Test
+    void recognisesCuiCells() {
+        assertTrue(Cuis.isCui("RO14399840"));
+        assertFalse(Cuis.isCui("CUI"));
+        assertFalse(Cuis.isCui(null));
+    }
+}
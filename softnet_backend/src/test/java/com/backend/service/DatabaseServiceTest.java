@@ -0,0 +1,48 @@
+package com.backend.service;
+
+import com.backend.model.response.CompanyFullView;
+import com.backend.repository.CompanyDataRepository;
+import com.backend.repository.CompanyFinancialRow;
+import com.backend.repository.FinancialRecordRepository;
+import com.backend.repository.UpsertRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseServiceTest {
+
+    private final CompanyDataRepository companyDataRepository = mock(CompanyDataRepository.class);
+    private final DatabaseService service = new DatabaseService(companyDataRepository,
+            mock(FinancialRecordRepository.class), mock(UpsertRepository.class), new EntityCache(10, 10, 10));
+
+    @Test
+    void streamedRowsAreGroupedPerCompany() {
+        when(companyDataRepository.streamCompaniesWithFinancials(anyCollection(), anyInt(), anyInt())).thenReturn(Stream.of(
+                row("111", "ALFA SRL", 2023, 10L),
+                row("111", "ALFA SRL", 2022, 20L),
+                row("222", "BETA SRL", null, null),
+                row("333", null, 2023, 30L),
+                row("444", "DELTA SRL", 2023, 40L)));
+
+        List<CompanyFullView> companies = new ArrayList<>();
+        service.streamCompanies(List.of("111", "222", "333", "444", "555"), 2021, 2023, companies::add);
+
+        assertEquals(List.of("111", "222", "444"), companies.stream().map(CompanyFullView::getCui).toList());
+        assertEquals(List.of(2023, 2022), companies.get(0).getFinancialRecords().stream().map(r -> r.getYear()).toList());
+        assertEquals(List.of(), companies.get(1).getFinancialRecords());
+        assertEquals(40L, companies.get(2).getFinancialRecords().get(0).getNetTurnover());
+    }
+
+    private static CompanyFinancialRow row(String cui, String name, Integer year, Long netTurnover) {
+        return new CompanyFinancialRow(cui, name, null, null, null, null, null, null, null, null, false, false,
+                null, year, netTurnover, null, null, null, null, null, null);
+    }
+}
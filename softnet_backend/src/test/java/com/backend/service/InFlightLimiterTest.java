@@ -0,0 +1,64 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InFlightLimiterTest {
+
+    @Test
+    void callsOverTheLimitWaitForAPermit() {
+        InFlightLimiter limiter = new InFlightLimiter(2);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        limiter.run(() -> { started.incrementAndGet(); return first; });
+        limiter.run(() -> { started.incrementAndGet(); return second; });
+        CompletableFuture<String> third = limiter.run(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("third");
+        });
+
+        assertEquals(2, started.get());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getQueued());
+        assertFalse(third.isDone());
+
+        first.complete("first");
+
+        assertEquals("third", third.join());
+        assertEquals(3, started.get());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+
+        second.complete("second");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void failedAndThrowingTasksReleaseTheirPermit() {
+        InFlightLimiter limiter = new InFlightLimiter(1);
+
+        CompletableFuture<String> failed = limiter.run(() -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+        CompletableFuture<String> thrown = limiter.run(() -> { throw new IllegalStateException("bug"); });
+
+        assertThrows(CompletionException.class, failed::join);
+        assertThrows(CompletionException.class, thrown::join);
+        assertEquals(0, limiter.getInFlight());
+        assertEquals("ok", limiter.run(() -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void limitIsAtLeastOne() {
+        InFlightLimiter limiter = new InFlightLimiter(0);
+
+        assertEquals("ok", limiter.run(() -> CompletableFuture.completedFuture("ok")).join());
+    }
+}
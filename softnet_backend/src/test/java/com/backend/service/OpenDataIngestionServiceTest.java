@@ -0,0 +1,130 @@
+package com.backend.service;
+
+import com.backend.model.entity.FinancialRecord;
+import com.backend.model.response.OpenDataIngestionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenDataIngestionServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, List<FinancialRecord>> stored = new ConcurrentHashMap<>();
+    private DatabaseService databaseService;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        when(databaseService.saveImportedFinancialRecords(anyList())).thenAnswer(call -> {
+            List<FinancialRecord> batch = call.getArgument(0);
+            batch.forEach(financialRecord -> stored.merge(financialRecord.getCui(), List.of(financialRecord),
+                    (a, b) -> List.of(a.get(0), b.get(0))));
+            return 0;
+        });
+    }
+
+    @Test
+    void groupedDecimalAndQuotedValuesAreParsed() throws Exception {
+        OpenDataIngestionStatus status = ingest("bilant_2023.txt", String.join("\n",
+                "CUI^DENUMIRE^I13^I18^I20",
+                "RO 101^ALFA SRL^1.234.567^-1,234.56^12",
+                "\"102\"^\"BETA ^ \"\"GAMA\"\" SRL\"^\" 1 234 567 \"^1.234,5^\"\"",
+                "103^DELTA SRL^1234,4^1.234^0.500",
+                "104^EPSILON SRL^12abc^1^1",
+                "105^ZETA SRL^12.34.56^1^1",
+                "106^ETA SRL^1,234,567.89.1^1^1",
+                "ROMANIA^THETA SRL^1^1^1",
+                "108^\"IOTA SRL^1^1^1",
+                "109^KAPPA SRL^1^1\r",
+                ""));
+
+        assertEquals(OpenDataIngestionStatus.State.COMPLETED, status.getState());
+        assertEquals(9, status.getRowsRead());
+        assertEquals(3, status.getRowsStored());
+        assertEquals(6, status.getRowsSkipped());
+        assertEquals(List.of("101", "102", "103"), stored.keySet().stream().sorted().collect(Collectors.toList()));
+
+        FinancialRecord alfa = stored.get("101").get(0);
+        assertEquals(1_234_567L, alfa.getNetTurnover());
+        assertEquals(-1_235L, alfa.getNetProfit());
+        assertEquals(12, alfa.getAverageEmployees());
+        assertEquals(2023, alfa.getYear());
+
+        FinancialRecord beta = stored.get("102").get(0);
+        assertEquals(1_234_567L, beta.getNetTurnover());
+        assertEquals(1_235L, beta.getNetProfit());
+        assertEquals(0, beta.getAverageEmployees());
+
+        FinancialRecord delta = stored.get("103").get(0);
+        assertEquals(1_234L, delta.getNetTurnover());
+        assertEquals(1_234L, delta.getNetProfit());
+        assertEquals(1, delta.getAverageEmployees());
+    }
+
+    @Test
+    void chunkStartingOnALineBoundaryKeepsThatLine() throws Exception {
+        // 64-byte lines: the second chunk starts exactly at the start of a line
+        assertEveryLineStoredOnce(64, 40_000);
+    }
+
+    @Test
+    void lineCrossingAChunkBoundaryIsReadOnce() throws Exception {
+        assertEveryLineStoredOnce(100, 25_000);
+    }
+
+    private void assertEveryLineStoredOnce(int lineBytes, int lines) throws Exception {
+        StringBuilder content = new StringBuilder("CUI^I13^NOTE\n");
+        for (int i = 1; i <= lines; i++) {
+            String line = (1_000_000 + i) + "^" + i + "^";
+            content.append(line).append("x".repeat(lineBytes - line.length() - 1)).append('\n');
+        }
+
+        OpenDataIngestionStatus status = ingest("bilant_2022.txt", content.toString());
+
+        assertEquals(OpenDataIngestionStatus.State.COMPLETED, status.getState());
+        assertTrue(Files.size(directory.resolve("bilant_2022.txt")) > 2 * 1024 * 1024, "file should span several chunks");
+        assertEquals(lines, status.getRowsRead());
+        assertEquals(lines, status.getRowsStored());
+        assertEquals(0, status.getRowsSkipped());
+        assertEquals(lines, stored.size());
+        Map<String, Long> turnover = stored.values().stream()
+                .peek(records -> assertEquals(1, records.size()))
+                .map(records -> records.get(0))
+                .collect(Collectors.toMap(FinancialRecord::getCui, FinancialRecord::getNetTurnover));
+        for (int i = 1; i <= lines; i++) {
+            assertEquals(i, turnover.get(String.valueOf(1_000_000 + i)));
+        }
+    }
+
+    private OpenDataIngestionStatus ingest(String fileName, String content) throws Exception {
+        Files.writeString(directory.resolve(fileName), content, StandardCharsets.UTF_8);
+        OpenDataIngestionService service = new OpenDataIngestionService(databaseService, directory.toString(), 1, 4, 500);
+        assertNull(service.getStatus().orElse(null));
+
+        service.start(fileName, null);
+        long deadline = System.currentTimeMillis() + 30_000;
+        OpenDataIngestionStatus status = service.getStatus().orElseThrow();
+        while (status.getState() == OpenDataIngestionStatus.State.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = service.getStatus().orElseThrow();
+        }
+        return status;
+    }
+}
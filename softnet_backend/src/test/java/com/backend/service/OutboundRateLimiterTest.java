@@ -0,0 +1,91 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundRateLimiterTest {
+
+    private static final String ENDPOINT = "test";
+
+    private OutboundRateLimiter limiter(long recoveryMinutes) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.rate-limit.test.requests-per-minute", "60")
+                .withProperty("app.rate-limit.test.burst", "2");
+        return new OutboundRateLimiter(environment, 15, recoveryMinutes);
+    }
+
+    @Test
+    void burstIsGrantedAtOnceAndTheRestWaits() {
+        OutboundRateLimiter limiter = limiter(5);
+
+        assertTrue(limiter.acquire(ENDPOINT).isDone());
+        assertTrue(limiter.acquire(ENDPOINT).isDone());
+        CompletableFuture<Void> third = limiter.acquire(ENDPOINT);
+
+        assertFalse(third.isDone());
+        assertTrue(limiter.getAvailableTokens(ENDPOINT) < 0);
+        assertFalse(limiter.tryAcquire(ENDPOINT));
+
+        OutboundRateLimiter.BucketStats stats = limiter.getStats().get(ENDPOINT);
+        assertEquals(2, stats.getBurst());
+        assertEquals(3, stats.getGranted());
+        assertEquals(1, stats.getDelayed());
+        third.join();
+    }
+
+    @Test
+    void endpointsWithoutOwnSettingsUseTheDefaultRate() {
+        OutboundRateLimiter limiter = limiter(5);
+
+        assertEquals(15, limiter.getRequestsPerMinute("other"), 0.001);
+        assertTrue(limiter.tryAcquire("other"));
+        assertFalse(limiter.tryAcquire("other"));
+    }
+
+    @Test
+    void throttlingHalvesTheRateDownToAFloor() {
+        OutboundRateLimiter limiter = limiter(5);
+
+        limiter.onThrottled(ENDPOINT, null);
+        assertEquals(30, limiter.getRequestsPerMinute(ENDPOINT), 0.001);
+        assertFalse(limiter.tryAcquire(ENDPOINT));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onThrottled(ENDPOINT, null);
+        }
+        assertEquals(7.5, limiter.getRequestsPerMinute(ENDPOINT), 0.001);
+        assertEquals(11, limiter.getStats().get(ENDPOINT).getThrottleEvents());
+        assertEquals(60, limiter.getStats().get(ENDPOINT).getConfiguredRequestsPerMinute(), 0.001);
+    }
+
+    @Test
+    void retryAfterPausesTheEndpoint() {
+        OutboundRateLimiter limiter = limiter(5);
+
+        limiter.onThrottled(ENDPOINT, Duration.ofMinutes(1));
+
+        assertTrue(limiter.isPaused(ENDPOINT));
+        assertFalse(limiter.tryAcquire(ENDPOINT));
+        CompletableFuture<Void> waiting = limiter.acquire(ENDPOINT);
+        assertFalse(waiting.isDone());
+        waiting.cancel(false);
+        assertFalse(limiter.isPaused("other"));
+    }
+
+    @Test
+    void configuredRateReturnsAfterTheRecoveryInterval() {
+        OutboundRateLimiter limiter = limiter(0);
+
+        limiter.onThrottled(ENDPOINT, null);
+
+        assertEquals(60, limiter.getRequestsPerMinute(ENDPOINT), 0.001);
+        assertEquals(60, limiter.getStats().get(ENDPOINT).getCurrentRequestsPerMinute(), 0.001);
+    }
+}
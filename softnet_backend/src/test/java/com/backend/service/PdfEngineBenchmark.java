@@ -0,0 +1,111 @@
+package com.backend.service;
+
+import com.backend.model.SecurePdfResult;
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Time to produce a signed report with each {@link PdfGenerationService.ReportEngine}, render
+ * cache off. Run {@link #main} with the test classpath, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfEngineBenchmark {
+
+    private static final String CUI = "14399840";
+
+    @Param({"HTML", "LAYOUT"})
+    private PdfGenerationService.ReportEngine engine;
+
+    @Param({"3", "10"})
+    private int years;
+
+    private PdfGenerationService service;
+    private CompanyData company;
+
+    @Setup
+    public void setUp() {
+        CompanyFinancialService companyService = mock(CompanyFinancialService.class);
+        List<FinancialRecord> records = new ArrayList<>();
+        for (int i = 0; i < years; i++) {
+            records.add(FinancialRecord.builder()
+                    .cui(CUI)
+                    .year(2023 - i)
+                    .netTurnover(12_345_678L * (i + 1))
+                    .netProfit(-234_567L * i)
+                    .totalExpenses(9_876_543L)
+                    .liabilities(1_234_567L)
+                    .totalCapital(3_456_789L)
+                    .fixedAssets(456_789L)
+                    .averageEmployees(42)
+                    .insertTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0))
+                    .build());
+        }
+        when(companyService.getFinancialRecordsForPeriod(anyString(), anyInt(), anyInt())).thenReturn(records);
+
+        PdfUtilService pdfUtilService = new PdfUtilService();
+        PdfStorageService storageService = new PdfStorageService(pdfUtilService);
+        ReflectionTestUtils.setField(storageService, "signatureSecret", "benchmark-secret");
+        PdfConversionContext conversionContext = new PdfConversionContext();
+        service = new PdfGenerationService(companyService, pdfUtilService, storageService,
+                new PdfRenderCache(pdfUtilService, false, "./pdf-cache", 1, 1, 1),
+                conversionContext, new PdfLayoutRenderer(conversionContext));
+        ReflectionTestUtils.setField(service, "pdfVersion", "1.0");
+        ReflectionTestUtils.setField(service, "watermarkText", "CONFIDENTIAL");
+        ReflectionTestUtils.setField(service, "deterministic", true);
+        service.setDefaultEngine("html");
+
+        company = CompanyData.builder()
+                .cui(CUI)
+                .companyName("SOCIETATE COMERCIALĂ EXEMPLU SRL")
+                .fiscalAddress("Str. Exemplu nr. 1, București")
+                .tradeRegisterNo("J40/1234/2001")
+                .phone("0212345678")
+                .isVatPayer(true)
+                .isInactive(false)
+                .caenDescription("Activități de realizare a soft-ului la comandă")
+                .insertTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+
+    @Benchmark
+    public SecurePdfResult render() throws IOException {
+        return service.generateSecurePdf(company, CUI, years, engine);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PdfEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
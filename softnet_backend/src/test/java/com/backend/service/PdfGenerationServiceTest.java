@@ -0,0 +1,212 @@
+package com.backend.service;
+
+import com.backend.model.SecurePdfResult;
+import com.backend.model.entity.CompanyData;
+import com.backend.model.entity.FinancialRecord;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PdfGenerationServiceTest {
+
+    private static final String CUI = "14399840";
+
+    private CompanyFinancialService companyService;
+    private PdfGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        companyService = mock(CompanyFinancialService.class);
+        PdfUtilService pdfUtilService = new PdfUtilService();
+        PdfStorageService storageService = new PdfStorageService(pdfUtilService);
+        ReflectionTestUtils.setField(storageService, "signatureSecret", "test-secret");
+        PdfRenderCache renderCache = new PdfRenderCache(pdfUtilService, false, "./pdf-cache", 1, 1, 1);
+        PdfConversionContext conversionContext = new PdfConversionContext();
+
+        service = new PdfGenerationService(companyService, pdfUtilService, storageService, renderCache,
+                conversionContext, new PdfLayoutRenderer(conversionContext));
+        ReflectionTestUtils.setField(service, "pdfVersion", "1.0");
+        ReflectionTestUtils.setField(service, "watermarkText", "CONFIDENTIAL");
+        ReflectionTestUtils.setField(service, "deterministic", true);
+        service.setDefaultEngine("html");
+    }
+
+    @Test
+    void genuineReportsMatchTheirCanonicalContent() throws Exception {
+        for (PdfGenerationService.ReportEngine engine : PdfGenerationService.ReportEngine.values()) {
+            givenRecords(3);
+            Report report = generate(engine, 3);
+            assertTrue(service.matchesCanonicalContent(report.canonical, report.pageText), engine.name());
+        }
+    }
+
+    @Test
+    void multiPageReportsMatchTheirCanonicalContent() throws Exception {
+        for (PdfGenerationService.ReportEngine engine : PdfGenerationService.ReportEngine.values()) {
+            givenRecords(12);
+            Report report = generate(engine, 12);
+            assertTrue(report.pages > 1, engine.name() + " report should span pages");
+            assertTrue(service.matchesCanonicalContent(report.canonical, report.pageText), engine.name());
+        }
+    }
+
+    @Test
+    void changedAmountDoesNotMatch() throws Exception {
+        givenRecords(3);
+        Report report = generate(PdfGenerationService.ReportEngine.LAYOUT, 3);
+        assertTrue(report.pageText.contains("1,000"));
+
+        assertFalse(service.matchesCanonicalContent(report.canonical, report.pageText.replace("1,000", "11,000")));
+    }
+
+    @Test
+    void droppedOrAddedTextDoesNotMatch() throws Exception {
+        givenRecords(3);
+        Report report = generate(PdfGenerationService.ReportEngine.HTML, 3);
+
+        assertFalse(service.matchesCanonicalContent(report.canonical, report.pageText + "\n2000 1,000"));
+        assertFalse(service.matchesCanonicalContent(report.canonical, report.pageText.replace("CONFIDENTIAL", "")));
+    }
+
+    @Test
+    void textStampedOnTheSignedPdfDoesNotMatch() throws Exception {
+        givenRecords(3);
+        Report report = generate(PdfGenerationService.ReportEngine.HTML, 3);
+
+        ByteArrayOutputStream stamped = new ByteArrayOutputStream();
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(report.bytes)), new PdfWriter(stamped))) {
+            new PdfCanvas(pdf.getFirstPage())
+                    .beginText()
+                    .setFontAndSize(PdfFontFactory.createFont(StandardFonts.HELVETICA), 10)
+                    .moveText(40, 40)
+                    .showText("Net Profit: 99,999")
+                    .endText();
+        }
+        String stampedText;
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(stamped.toByteArray())))) {
+            stampedText = PdfGenerationService.extractDrawnText(pdf);
+        }
+
+        assertFalse(service.matchesCanonicalContent(report.canonical, stampedText));
+    }
+
+    @Test
+    void malformedCanonicalContentDoesNotMatch() throws Exception {
+        givenRecords(1);
+        Report report = generate(PdfGenerationService.ReportEngine.LAYOUT, 1);
+
+        assertFalse(service.matchesCanonicalContent("not canonical", report.pageText));
+        assertFalse(service.matchesCanonicalContent(report.canonical.replace("record.", "record"), report.pageText));
+    }
+
+    @Test
+    void renderCacheIsKeyedBySigningKey(@TempDir Path cacheDirectory) throws Exception {
+        PdfUtilService pdfUtilService = new PdfUtilService();
+        PdfStorageService storageService = new PdfStorageService(pdfUtilService);
+        ReflectionTestUtils.setField(storageService, "signatureSecret", "first-secret");
+        PdfRenderCache renderCache = new PdfRenderCache(pdfUtilService, true, cacheDirectory.toString(), 10, 10, 1);
+        PdfConversionContext conversionContext = new PdfConversionContext();
+        PdfGenerationService cached = new PdfGenerationService(companyService, pdfUtilService, storageService,
+                renderCache, conversionContext, new PdfLayoutRenderer(conversionContext));
+        ReflectionTestUtils.setField(cached, "pdfVersion", "1.0");
+        ReflectionTestUtils.setField(cached, "deterministic", true);
+        cached.setDefaultEngine("layout");
+        givenRecords(1);
+
+        SecurePdfResult first = cached.generateSecurePdf(company(), CUI, 1, null);
+        assertSame(first, cached.generateSecurePdf(company(), CUI, 1, null));
+
+        ReflectionTestUtils.setField(storageService, "signatureSecret", "rotated-secret");
+        SecurePdfResult rotated = cached.generateSecurePdf(company(), CUI, 1, null);
+        assertNotEquals(first.getChecksum(), rotated.getChecksum());
+    }
+
+    @Test
+    void unknownDefaultEngineIsRejectedWhenConfigured() {
+        assertThrows(IllegalArgumentException.class, () -> service.setDefaultEngine("pdfbox"));
+    }
+
+    @Test
+    void canonicalContentRoundTrips() {
+        ReportContent content = new ReportContent("CONFIDENTIAL", "ACME SRL", CUI, "Data as of", "2024-01-02 03:04:05",
+                List.of(new ReportContent.InfoRow("Phone:", "0212345678")),
+                List.of(new ReportContent.FinancialRow(2023, "1", "2", "3", "4", "5", "6", "7")));
+
+        assertEquals(content, ReportContent.fromCanonical(content.canonical(PdfGenerationService.CANONICAL_SCHEME, "1.0")));
+    }
+
+    private void givenRecords(int years) {
+        List<FinancialRecord> records = new ArrayList<>();
+        int latest = LocalDateTime.now().getYear() - 1;
+        for (int i = 0; i < years; i++) {
+            records.add(FinancialRecord.builder()
+                    .cui(CUI)
+                    .year(latest - i)
+                    .netTurnover(1_000L + i)
+                    .netProfit(-250_000L * (i + 1))
+                    .totalExpenses(123_456_789L)
+                    .liabilities(0L)
+                    .totalCapital(987_654L)
+                    .fixedAssets(null)
+                    .averageEmployees(12)
+                    .insertTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0))
+                    .build());
+        }
+        when(companyService.getFinancialRecordsForPeriod(eq(CUI), anyInt(), anyInt())).thenReturn(records);
+    }
+
+    private Report generate(PdfGenerationService.ReportEngine engine, int years) throws Exception {
+        SecurePdfResult result = service.generateSecurePdf(company(), CUI, years, engine);
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(result.getPdfData())))) {
+            String encoded = pdf.getDocumentInfo().getMoreInfo(PdfGenerationService.CANONICAL_CONTENT_KEY);
+            String canonical = new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+            return new Report(result.getPdfData(), canonical, PdfGenerationService.extractDrawnText(pdf),
+                    pdf.getNumberOfPages());
+        }
+    }
+
+    private static CompanyData company() {
+        return CompanyData.builder()
+                .cui(CUI)
+                .companyName("SOCIETATE COMERCIALĂ ȘTEFĂNEȘTI SRL")
+                .fiscalAddress("Str. Lungă nr. 1, București, sector 1, cu o adresă suficient de lungă cât să se rupă pe două rânduri")
+                .tradeRegisterNo("J40/1234/2001")
+                .phone("021 234 5678")
+                .isVatPayer(true)
+                .isInactive(false)
+                .caenDescription("Activități de realizare a soft-ului la comandă (software orientat client)")
+                .insertTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+
+    private record Report(byte[] bytes, String canonical, String pageText, int pages) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfRenderExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PdfRenderExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void rendersOverTheQueueCapacityAreRejected() throws Exception {
+        executor = new PdfRenderExecutor(1, 1, 60);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> render(blocked("running")));
+        awaitStat("active", 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> render(() -> "queued"));
+        awaitStat("queueDepth", 1);
+
+        PdfRenderExecutor.BusyException error = assertThrows(PdfRenderExecutor.BusyException.class,
+                () -> executor.render(() -> "rejected"));
+
+        assertTrue(error.getRetryAfterSeconds() >= 1);
+        assertEquals(1L, executor.getStats().get("rejected"));
+        release.countDown();
+        assertEquals("running", running.get(10, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+        assertEquals(2L, executor.getStats().get("completed"));
+    }
+
+    @Test
+    void rendersPastTheirDeadlineGiveUpAndQueuedOnesAreDropped() throws Exception {
+        executor = new PdfRenderExecutor(1, 4, 1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        assertThrows(PdfRenderExecutor.BusyException.class, () -> executor.render(blocked("running")));
+        assertThrows(PdfRenderExecutor.BusyException.class, () -> executor.render(() -> {
+            queuedRan.set(true);
+            return "queued";
+        }));
+
+        assertEquals(2L, executor.getStats().get("timedOut"));
+        assertEquals(1, executor.getStats().get("active"));
+        assertEquals(0, executor.getStats().get("queueDepth"));
+        release.countDown();
+        awaitStat("active", 0);
+        assertFalse(queuedRan.get());
+    }
+
+    @Test
+    void taskExceptionsAreRethrownAsTheyAre() {
+        executor = new PdfRenderExecutor(1, 1, 60);
+
+        IOException error = assertThrows(IOException.class, () -> executor.render(() -> {
+            throw new IOException("font missing");
+        }));
+
+        assertEquals("font missing", error.getMessage());
+        assertEquals(1L, executor.getStats().get("failed"));
+    }
+
+    private Callable<String> blocked(String result) {
+        return () -> {
+            release.await();
+            return result;
+        };
+    }
+
+    private String render(Callable<String> task) {
+        try {
+            return executor.render(task);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitStat(String name, int expected) throws InterruptedException {
+        BooleanSupplier reached = () -> executor.getStats().get(name).equals(expected);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!reached.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(reached.getAsBoolean(), name + " never reached " + expected);
+    }
+}
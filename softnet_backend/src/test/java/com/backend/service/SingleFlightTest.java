@@ -0,0 +1,94 @@
+package com.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallsForOneKeyShareTheWork() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> work = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("a", () -> { calls.incrementAndGet(); return work; });
+        CompletableFuture<String> second = singleFlight.execute("a", () -> { calls.incrementAndGet(); return work; });
+        CompletableFuture<String> other = singleFlight.execute("b", () -> CompletableFuture.completedFuture("b"));
+        work.complete("a");
+
+        assertEquals("a", first.join());
+        assertEquals("a", second.join());
+        assertEquals("b", other.join());
+        assertEquals(1, calls.get());
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(1, singleFlight.getShared());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void finishedFlightsAreNotReused() {
+        singleFlight.execute("a", () -> CompletableFuture.completedFuture("first")).join();
+
+        assertEquals("second", singleFlight.execute("a", () -> CompletableFuture.completedFuture("second")).join());
+        assertEquals(0, singleFlight.getShared());
+    }
+
+    @Test
+    void failuresReachEveryCallerAndFreeTheKey() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("a", () -> work);
+        CompletableFuture<String> second = singleFlight.execute("a", () -> work);
+        work.completeExceptionally(new CompletionException(new IOException("down")));
+
+        assertInstanceOf(IOException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IOException.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void supplierExceptionsFailTheFlight() {
+        CompletableFuture<String> result = singleFlight.execute("a", () -> { throw new IllegalStateException("bug"); });
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, result::join).getCause());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthers() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("a", () -> work);
+        CompletableFuture<String> second = singleFlight.execute("a", () -> work);
+
+        first.cancel(true);
+        work.complete("a");
+
+        assertTrue(first.isCancelled());
+        assertEquals("a", second.join());
+    }
+
+    @Test
+    void claimsLetOneOwnerCompleteSeveralCallers() {
+        SingleFlight.Claim<String> owner = singleFlight.claim("a");
+        SingleFlight.Claim<String> follower = singleFlight.claim("a");
+        assertTrue(owner.isOwner());
+        assertFalse(follower.isOwner());
+
+        singleFlight.complete("a", follower, "ignored", null);
+        assertFalse(follower.getResult().isDone());
+
+        singleFlight.complete("a", owner, "a", null);
+        assertEquals("a", follower.getResult().join());
+        assertTrue(singleFlight.claim("a").isOwner());
+    }
+}